@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the permission names used by the benchmarks
+ */
+final class Permissions {
+
+  private Permissions() {
+  }
+
+  static List<String> create(int count) {
+    List<String> permissions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      permissions.add("android.permission.BENCHMARK_" + i);
+    }
+    return permissions;
+  }
+}
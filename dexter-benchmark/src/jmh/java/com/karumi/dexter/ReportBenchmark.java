@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how the queries listeners usually run on a report scale with its size
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReportBenchmark {
+
+  @Param({ "1", "5", "20", "100" }) public int permissionCount;
+
+  private MultiplePermissionsReport report;
+  private String lastPermission;
+
+  @Setup public void setUp() {
+    List<String> permissions = Permissions.create(permissionCount);
+    lastPermission = permissions.get(permissions.size() - 1);
+    report = new MultiplePermissionsReport();
+    for (int i = 0; i < permissions.size(); i++) {
+      if (i % 2 == 0) {
+        report.addGrantedPermissionResponse(PermissionGrantedResponse.from(permissions.get(i)));
+      } else {
+        report.addDeniedPermissionResponse(
+            PermissionDeniedResponse.from(permissions.get(i), i % 4 == 1));
+      }
+    }
+  }
+
+  @Benchmark public void readResponses(Blackhole blackhole) {
+    blackhole.consume(report.getGrantedPermissionResponses());
+    blackhole.consume(report.getDeniedPermissionResponses());
+  }
+
+  @Benchmark public void readResponseViews(Blackhole blackhole) {
+    blackhole.consume(report.getGrantedPermissionResponsesView());
+    blackhole.consume(report.getDeniedPermissionResponsesView());
+  }
+
+  @Benchmark public boolean lookUpPermission() {
+    return report.isPermissionGranted(lastPermission);
+  }
+
+  @Benchmark public void queryState(Blackhole blackhole) {
+    blackhole.consume(report.areAllPermissionsGranted());
+    blackhole.consume(report.isAnyPermissionPermanentlyDenied());
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.EmptyPermissionRequestErrorListener;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.multi.BaseStreamingMultiplePermissionsListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the work done by DexterStateMachine to resolve a request: checking the state of its
+ * permissions, asking a fake host for the denied ones, filling the report and notifying the
+ * listener through a synchronous thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestBenchmark {
+
+  @Param({ "1", "5", "20", "100" }) public int permissionCount;
+
+  private final Thread thread = new SynchronousThread();
+  private final ReportListener listener = new ReportListener();
+  private final PermissionRequestErrorListener errorListener =
+      new EmptyPermissionRequestErrorListener();
+  private final FakeHost host = new FakeHost();
+  private List<String> permissions;
+  private List<String> grantedByUser;
+  private List<String> deniedByUser;
+  private DexterStateMachine grantedStateMachine;
+  private DexterStateMachine deniedStateMachine;
+
+  @Setup public void setUp() {
+    permissions = Permissions.create(permissionCount);
+    grantedByUser = new ArrayList<>();
+    deniedByUser = new ArrayList<>();
+    for (int i = 0; i < permissions.size(); i++) {
+      String permission = permissions.get(i);
+      if (i % 2 == 0) {
+        grantedByUser.add(permission);
+      } else {
+        deniedByUser.add(permission);
+        if (i % 4 == 1) {
+          host.permanentlyDeniedPermissions.add(permission);
+        }
+      }
+    }
+    grantedStateMachine = newStateMachine(PermissionService.PERMISSION_GRANTED);
+    deniedStateMachine = newStateMachine(PermissionService.PERMISSION_DENIED);
+    checkPermissions(grantedStateMachine, false);
+  }
+
+  /**
+   * Request whose permissions are all known to be granted, resolved by the fast path without
+   * creating a request
+   */
+  @Benchmark public MultiplePermissionsReport resolveGrantedRequestFromCache() {
+    checkPermissions(grantedStateMachine, true);
+    return listener.report;
+  }
+
+  /**
+   * Request whose permissions are all granted, resolved by a regular request querying their
+   * states without showing the system dialog
+   */
+  @Benchmark public MultiplePermissionsReport resolveGrantedRequestWithStateQuery() {
+    checkPermissions(grantedStateMachine, false);
+    return listener.report;
+  }
+
+  /**
+   * Request resolved after the system dialog with half of its permissions denied
+   */
+  @Benchmark public MultiplePermissionsReport resolveMixedRequest() {
+    checkPermissions(deniedStateMachine, false);
+    deniedStateMachine.onPermissionsRequested(grantedByUser, deniedByUser);
+    return listener.report;
+  }
+
+  private void checkPermissions(DexterStateMachine stateMachine, boolean canSkipRequest) {
+    stateMachine.checkPermissions(listener, permissions, thread, errorListener,
+        RequestBackend.AUTOMATIC, DexterEvents.NONE, canSkipRequest);
+  }
+
+  /*
+   * The host is kept ready between requests, as when they are checked within the linger time, so
+   * only the request itself is measured
+   */
+  private DexterStateMachine newStateMachine(int permissionState) {
+    DexterStateMachine stateMachine = new DexterStateMachine(
+        new FakePermissionService(permissionState), host, host, thread);
+    stateMachine.onHostReady(host);
+    return stateMachine;
+  }
+
+  private static final class ReportListener extends BaseStreamingMultiplePermissionsListener {
+
+    private MultiplePermissionsReport report;
+
+    @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
+      this.report = report;
+    }
+  }
+
+  /**
+   * Permission service reporting the same state for every permission, whatever the user answers,
+   * and caching the granted ones once queried
+   */
+  private static final class FakePermissionService implements PermissionService {
+
+    private final int permissionState;
+    private final Set<String> grantedPermissions = new HashSet<>();
+
+    FakePermissionService(int permissionState) {
+      this.permissionState = permissionState;
+    }
+
+    @Override public boolean isAvailable() {
+      return true;
+    }
+
+    @Override public boolean areGranted(List<String> permissions) {
+      for (int i = 0; i < permissions.size(); i++) {
+        if (!grantedPermissions.contains(permissions.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override public void checkSelfPermissions(String[] permissions, int[] permissionStates) {
+      Arrays.fill(permissionStates, permissionState);
+      if (permissionState == PERMISSION_GRANTED) {
+        grantedPermissions.addAll(Arrays.asList(permissions));
+      }
+    }
+
+    @Override public void onPermissionsGranted(Collection<String> permissions) {
+    }
+
+    @Override public void onPermissionsDenied(Collection<String> permissions) {
+    }
+  }
+
+  /**
+   * Host that never finishes and leaves the result of the system dialog to the benchmark
+   */
+  private static final class FakeHost
+      implements PermissionRequestHost, HostLauncher, HostReleaseScheduler {
+
+    private final Set<String> permanentlyDeniedPermissions = new HashSet<>();
+
+    @Override public boolean launch(RequestBackend backend) {
+      return true;
+    }
+
+    @Override public void schedule(Runnable release, long delayMillis) {
+    }
+
+    @Override public void requestPermissions(String[] permissions, int requestCode) {
+    }
+
+    @Override public boolean shouldShowRequestPermissionRationale(String permission) {
+      return false;
+    }
+
+    @Override public boolean isPermissionPermanentlyDenied(String permission) {
+      return permanentlyDeniedPermissions.contains(permission);
+    }
+
+    @Override public boolean isFinishing() {
+      return false;
+    }
+
+    @Override public void finish() {
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.EmptyPermissionRequestErrorListener;
+import com.karumi.dexter.listener.multi.BaseMultiplePermissionsListener;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the bookkeeping done when a request is checked while another one is ongoing
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestQueueBenchmark {
+
+  @Param({ "1", "5", "20", "100" }) public int permissionCount;
+
+  private DexterRequestQueue queue;
+  private DexterRequest ongoingRequest;
+  private DexterRequest request;
+
+  @Setup public void setUp() {
+    queue = new DexterRequestQueue(1, QueueOverflowPolicy.REJECT_NEW_REQUEST);
+    ongoingRequest = newRequest(Permissions.create(permissionCount));
+    request = newRequest(Permissions.create(permissionCount));
+  }
+
+  /**
+   * Looks up whether the ongoing request is already asking for every permission of the new one
+   */
+  @Benchmark public boolean lookUpCoalescableRequest() {
+    return ongoingRequest.contains(request);
+  }
+
+  @Benchmark public DexterRequest queueRequest() {
+    queue.offer(request);
+    return queue.poll();
+  }
+
+  private static DexterRequest newRequest(List<String> permissions) {
+    Thread thread = new SynchronousThread();
+    return new DexterRequest(
+        new MultiplePermissionListenerThreadDecorator(new BaseMultiplePermissionsListener(),
+            thread), permissions, thread, new EmptyPermissionRequestErrorListener(),
+        RequestBackend.AUTOMATIC);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor notifying the listeners of requests checked from threads without a Looper. It
+ * uses a single thread, so updates are delivered in order, and that thread is stopped after being
+ * idle for a while.
+ */
+final class CallbackExecutor {
+
+  private static final String THREAD_NAME_PREFIX = "Dexter-callback-";
+  private static final long KEEP_ALIVE_SECONDS = 10;
+
+  private static final ThreadLocal<Boolean> IS_CALLBACK_THREAD = new ThreadLocal<>();
+
+  private static volatile Executor instance;
+
+  private CallbackExecutor() {
+  }
+
+  static Executor get() {
+    Executor currentInstance = instance;
+    if (currentInstance != null) {
+      return currentInstance;
+    }
+
+    synchronized (CallbackExecutor.class) {
+      if (instance == null) {
+        instance = create();
+      }
+      return instance;
+    }
+  }
+
+  /**
+   * Returns whether the caller is running on the thread of the shared executor, where blocking
+   * would prevent any other listener, its own included, from being notified
+   */
+  static boolean isCurrentThread() {
+    return IS_CALLBACK_THREAD.get() != null;
+  }
+
+  private static Executor create() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new java.util.concurrent.ThreadFactory() {
+          private final AtomicInteger threadCount = new AtomicInteger();
+
+          @Override public java.lang.Thread newThread(final Runnable runnable) {
+            Runnable callbackRunnable = new Runnable() {
+              @Override public void run() {
+                IS_CALLBACK_THREAD.set(Boolean.TRUE);
+                runnable.run();
+              }
+            };
+            java.lang.Thread thread = new java.lang.Thread(callbackRunnable,
+                THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+}
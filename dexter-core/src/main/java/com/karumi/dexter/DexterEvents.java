@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.event.BaseDexterEventListener;
+import com.karumi.dexter.listener.event.CompositeDexterEventListener;
+import com.karumi.dexter.listener.event.DexterEventListener;
+
+/**
+ * Helpers to pick the event listener of a request. Requests without any listener use
+ * {@link #NONE}, which callers compare against before reading the clock so unobserved requests
+ * do not pay for the events.
+ */
+final class DexterEvents {
+
+  static final DexterEventListener NONE = new BaseDexterEventListener();
+
+  private DexterEvents() {
+  }
+
+  /**
+   * Returns a listener notifying both the global listener and the one of a request
+   */
+  static DexterEventListener combine(DexterEventListener globalListener,
+      DexterEventListener requestListener) {
+    if (requestListener == NONE) {
+      return globalListener;
+    } else if (globalListener == NONE) {
+      return requestListener;
+    }
+    return new CompositeDexterEventListener(globalListener, requestListener);
+  }
+}
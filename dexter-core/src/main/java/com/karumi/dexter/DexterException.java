@@ -18,7 +18,10 @@ package com.karumi.dexter;
 
 import com.karumi.dexter.listener.DexterError;
 
-final class DexterException extends IllegalStateException {
+/**
+ * Exception describing why Dexter could not process a permission request
+ */
+public final class DexterException extends IllegalStateException {
 
   final DexterError error;
 
@@ -26,4 +29,8 @@ final class DexterException extends IllegalStateException {
     super(detailMessage);
     this.error = error;
   }
+
+  public DexterError getError() {
+    return error;
+  }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of a permission request checked asynchronously. Cancelling it cancels the request, so
+ * its listener is not notified anymore and the next queued request can start.
+ *
+ * Waiting for the result from the thread the listeners are notified on, the main one by default,
+ * blocks forever as the result is delivered through that thread.
+ */
+public final class DexterFuture<V> implements Future<V> {
+
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable runnable) {
+      runnable.run();
+    }
+  };
+
+  private final Object lock = new Object();
+  private List<Runnable> listeners = new ArrayList<>(1);
+  private List<Executor> listenerExecutors = new ArrayList<>(1);
+  private Runnable cancellation;
+  private boolean isDone = false;
+  private boolean isCancelled = false;
+  private V result;
+  private Throwable failure;
+
+  DexterFuture() {
+  }
+
+  /**
+   * Transformation applied to the result of a future
+   */
+  public interface Function<I, O> {
+    O apply(I input);
+  }
+
+  /**
+   * Callback notified once a future completes
+   */
+  public interface Callback<V> {
+    void onSuccess(V result);
+
+    /**
+     * @param throwable {@link DexterException} if the request failed, with the reason in
+     * {@link DexterException#getError()}, {@link CancellationException} if it was cancelled or
+     * the exception thrown by a {@link Function} used to map the result
+     */
+    void onFailure(Throwable throwable);
+  }
+
+  /**
+   * Registers a runnable executed on the given executor once this future completes, or right away
+   * if it has already completed. Compatible with the ListenableFuture contract.
+   */
+  public void addListener(Runnable listener, Executor executor) {
+    synchronized (lock) {
+      if (!isDone) {
+        listeners.add(listener);
+        listenerExecutors.add(executor);
+        return;
+      }
+    }
+    executor.execute(listener);
+  }
+
+  /**
+   * Registers a callback notified on the thread that completes this future
+   */
+  public DexterFuture<V> addCallback(Callback<? super V> callback) {
+    return addCallback(callback, DIRECT_EXECUTOR);
+  }
+
+  /**
+   * Registers a callback notified on the given executor once this future completes
+   */
+  public DexterFuture<V> addCallback(final Callback<? super V> callback, Executor executor) {
+    addListener(new Runnable() {
+      @Override public void run() {
+        V currentResult;
+        Throwable currentFailure;
+        synchronized (lock) {
+          currentResult = result;
+          currentFailure = isCancelled ? new CancellationException() : failure;
+        }
+
+        if (currentFailure != null) {
+          callback.onFailure(currentFailure);
+        } else {
+          callback.onSuccess(currentResult);
+        }
+      }
+    }, executor);
+    return this;
+  }
+
+  /**
+   * Returns a future completed with the result of this one transformed by the given function.
+   * Cancelling the returned future cancels this one too.
+   */
+  public <O> DexterFuture<O> map(final Function<? super V, ? extends O> function) {
+    final DexterFuture<O> mappedFuture = new DexterFuture<>();
+    mappedFuture.setCancellation(new Runnable() {
+      @Override public void run() {
+        cancel(false);
+      }
+    });
+    addCallback(new Callback<V>() {
+      @Override public void onSuccess(V result) {
+        O mappedResult;
+        try {
+          mappedResult = function.apply(result);
+        } catch (RuntimeException e) {
+          mappedFuture.fail(e);
+          return;
+        }
+        mappedFuture.complete(mappedResult);
+      }
+
+      @Override public void onFailure(Throwable throwable) {
+        if (throwable instanceof CancellationException) {
+          mappedFuture.cancel(false);
+        } else {
+          mappedFuture.fail(throwable);
+        }
+      }
+    });
+    return mappedFuture;
+  }
+
+  @Override public boolean cancel(boolean mayInterruptIfRunning) {
+    Runnable currentCancellation;
+    synchronized (lock) {
+      if (isDone) {
+        return false;
+      }
+      isCancelled = true;
+      currentCancellation = cancellation;
+      markAsDone();
+    }
+
+    if (currentCancellation != null) {
+      currentCancellation.run();
+    }
+    notifyListeners();
+    return true;
+  }
+
+  @Override public boolean isCancelled() {
+    synchronized (lock) {
+      return isCancelled;
+    }
+  }
+
+  @Override public boolean isDone() {
+    synchronized (lock) {
+      return isDone;
+    }
+  }
+
+  @Override public V get() throws InterruptedException, ExecutionException {
+    synchronized (lock) {
+      while (!isDone) {
+        lock.wait();
+      }
+      return getResult();
+    }
+  }
+
+  @Override public V get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (lock) {
+      while (!isDone) {
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+          throw new TimeoutException();
+        }
+        TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+      }
+      return getResult();
+    }
+  }
+
+  /**
+   * Sets the action executed to cancel the underlying request. It is not executed if the future
+   * has already completed.
+   */
+  void setCancellation(Runnable cancellation) {
+    synchronized (lock) {
+      if (!isDone) {
+        this.cancellation = cancellation;
+      }
+    }
+  }
+
+  boolean complete(V result) {
+    synchronized (lock) {
+      if (isDone) {
+        return false;
+      }
+      this.result = result;
+      markAsDone();
+    }
+    notifyListeners();
+    return true;
+  }
+
+  boolean fail(Throwable failure) {
+    synchronized (lock) {
+      if (isDone) {
+        return false;
+      }
+      this.failure = failure;
+      markAsDone();
+    }
+    notifyListeners();
+    return true;
+  }
+
+  private V getResult() throws ExecutionException {
+    if (isCancelled) {
+      throw new CancellationException();
+    }
+    if (failure != null) {
+      throw new ExecutionException(failure);
+    }
+    return result;
+  }
+
+  private void markAsDone() {
+    isDone = true;
+    cancellation = null;
+    lock.notifyAll();
+  }
+
+  private void notifyListeners() {
+    List<Runnable> currentListeners;
+    List<Executor> currentExecutors;
+    synchronized (lock) {
+      currentListeners = listeners;
+      currentExecutors = listenerExecutors;
+      listeners = null;
+      listenerExecutors = null;
+    }
+
+    for (int i = 0; i < currentListeners.size(); i++) {
+      currentExecutors.get(i).execute(currentListeners.get(i));
+    }
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics aggregated by Dexter since they were enabled.
+ *
+ * Counters are read one by one without locking the requests being processed, so a snapshot
+ * taken while a request is ongoing may not be consistent between counters.
+ */
+public final class DexterMetrics {
+
+  private final long requestsChecked;
+  private final long requestsStarted;
+  private final long requestsCompleted;
+  private final long requestsResolvedFromCache;
+  private final long requestsCoalesced;
+  private final long requestsCancelled;
+  private final Map<DexterError, Long> requestsFailed;
+  private final long cacheHits;
+  private final long cacheMisses;
+  private final long permissionServiceQueries;
+  private final LatencyHistogram activityLaunchLatency;
+  private final LatencyHistogram userDecisionLatency;
+  private final LatencyHistogram dispatchLatency;
+
+  DexterMetrics(long requestsChecked, long requestsStarted, long requestsCompleted,
+      long requestsResolvedFromCache, long requestsCoalesced, long requestsCancelled,
+      EnumMap<DexterError, Long> requestsFailed, long cacheHits, long cacheMisses,
+      long permissionServiceQueries, LatencyHistogram activityLaunchLatency,
+      LatencyHistogram userDecisionLatency, LatencyHistogram dispatchLatency) {
+    this.requestsChecked = requestsChecked;
+    this.requestsStarted = requestsStarted;
+    this.requestsCompleted = requestsCompleted;
+    this.requestsResolvedFromCache = requestsResolvedFromCache;
+    this.requestsCoalesced = requestsCoalesced;
+    this.requestsCancelled = requestsCancelled;
+    this.requestsFailed = Collections.unmodifiableMap(requestsFailed);
+    this.cacheHits = cacheHits;
+    this.cacheMisses = cacheMisses;
+    this.permissionServiceQueries = permissionServiceQueries;
+    this.activityLaunchLatency = activityLaunchLatency;
+    this.userDecisionLatency = userDecisionLatency;
+    this.dispatchLatency = dispatchLatency;
+  }
+
+  /**
+   * Number of requests checked, including the ones resolved from the cache
+   */
+  public long getRequestsChecked() {
+    return requestsChecked;
+  }
+
+  /**
+   * Number of requests that left the queue and started being processed
+   */
+  public long getRequestsStarted() {
+    return requestsStarted;
+  }
+
+  /**
+   * Number of requests whose report has been delivered to their listener, including the ones
+   * resolved from the cache
+   */
+  public long getRequestsCompleted() {
+    return requestsCompleted;
+  }
+
+  /**
+   * Number of requests resolved without being started as every permission was known to be granted
+   */
+  public long getRequestsResolvedFromCache() {
+    return requestsResolvedFromCache;
+  }
+
+  public long getRequestsCoalesced() {
+    return requestsCoalesced;
+  }
+
+  public long getRequestsCancelled() {
+    return requestsCancelled;
+  }
+
+  /**
+   * Number of requests that failed with the given error
+   */
+  public long getRequestsFailed(DexterError error) {
+    Long requests = requestsFailed.get(error);
+    return requests != null ? requests : 0;
+  }
+
+  /**
+   * Number of requests that failed, by error. Errors no request failed with are not included
+   */
+  public Map<DexterError, Long> getRequestsFailed() {
+    return requestsFailed;
+  }
+
+  /**
+   * Number of permission checks answered without querying the Android permission system
+   */
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * Number of permission checks that needed to query the Android permission system
+   */
+  public long getCacheMisses() {
+    return cacheMisses;
+  }
+
+  /**
+   * Ratio between zero and one of the permission checks answered without querying the Android
+   * permission system, or zero if no permission has been checked
+   */
+  public double getCacheHitRate() {
+    long checks = cacheHits + cacheMisses;
+    return checks != 0 ? (double) cacheHits / checks : 0;
+  }
+
+  /**
+   * Number of queries sent to the Android permission system. A single query can resolve several
+   * permissions at once
+   */
+  public long getPermissionServiceQueries() {
+    return permissionServiceQueries;
+  }
+
+  /**
+   * Time between launching the component used to request permissions and having it ready
+   */
+  public LatencyHistogram getActivityLaunchLatency() {
+    return activityLaunchLatency;
+  }
+
+  /**
+   * Time between showing the system permission dialog or a rationale and the user answering it
+   */
+  public LatencyHistogram getUserDecisionLatency() {
+    return userDecisionLatency;
+  }
+
+  /**
+   * Time between handing a report to the thread its listener is notified on and the listener
+   * receiving it
+   */
+  public LatencyHistogram getDispatchLatency() {
+    return dispatchLatency;
+  }
+
+  @Override public String toString() {
+    return "DexterMetrics{"
+        + "requestsChecked=" + requestsChecked
+        + ", requestsStarted=" + requestsStarted
+        + ", requestsCompleted=" + requestsCompleted
+        + ", requestsResolvedFromCache=" + requestsResolvedFromCache
+        + ", requestsCoalesced=" + requestsCoalesced
+        + ", requestsCancelled=" + requestsCancelled
+        + ", requestsFailed=" + requestsFailed
+        + ", cacheHits=" + cacheHits
+        + ", cacheMisses=" + cacheMisses
+        + ", permissionServiceQueries=" + permissionServiceQueries
+        + ", activityLaunchLatency=" + activityLaunchLatency
+        + ", userDecisionLatency=" + userDecisionLatency
+        + ", dispatchLatency=" + dispatchLatency
+        + '}';
+  }
+
+  /**
+   * Distribution of the latencies of a phase in fixed buckets
+   */
+  public static final class LatencyHistogram {
+
+    private final long[] bucketUpperBoundsMillis;
+    private final long[] bucketCounts;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    LatencyHistogram(long[] bucketUpperBoundsMillis, long[] bucketCounts, long totalNanos,
+        long maxNanos) {
+      this.bucketUpperBoundsMillis = bucketUpperBoundsMillis;
+      this.bucketCounts = bucketCounts;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Exclusive upper bound in milliseconds of each bucket. The last one is
+     * {@link Long#MAX_VALUE}
+     */
+    public long[] getBucketUpperBoundsMillis() {
+      return bucketUpperBoundsMillis.clone();
+    }
+
+    /**
+     * Number of latencies recorded in each bucket, following the order of the upper bounds
+     */
+    public long[] getBucketCounts() {
+      return bucketCounts.clone();
+    }
+
+    public long getCount() {
+      long count = 0;
+      for (long bucketCount : bucketCounts) {
+        count += bucketCount;
+      }
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * Average latency in nanoseconds, or zero if none has been recorded
+     */
+    public long getMeanNanos() {
+      long count = getCount();
+      return count != 0 ? totalNanos / count : 0;
+    }
+
+    @Override public String toString() {
+      return "LatencyHistogram{"
+          + "count=" + getCount()
+          + ", meanNanos=" + getMeanNanos()
+          + ", maxNanos=" + maxNanos
+          + ", bucketCounts=" + Arrays.toString(bucketCounts)
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.event.DexterEventListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Permission request waiting to be processed by a {@link DexterStateMachine}. Other requests asking
+ * for overlapping permissions can be coalesced into it so all of them share the same system
+ * dialog and report.
+ */
+final class DexterRequest {
+
+  private static final AtomicLong NEXT_ID = new AtomicLong();
+
+  private final long id;
+  private final DexterEventListener eventListener;
+  private final MultiplePermissionsListener listener;
+  private final Collection<String> permissions;
+  private final Thread thread;
+  private final PermissionRequestErrorListener errorListener;
+  private final RequestBackend backend;
+  private final Continuation continuation;
+  private final Set<String> coalescedPermissions;
+  private final List<DexterRequest> coalescedRequests = new CopyOnWriteArrayList<>();
+  private final StreamingMultiplePermissionsListener coalescingListener = new CoalescingListener();
+  private DexterRequest coalescedInto;
+  private volatile boolean isDetached = false;
+
+  DexterRequest(MultiplePermissionsListener listener, Collection<String> permissions,
+      Thread thread, PermissionRequestErrorListener errorListener, RequestBackend backend) {
+    this(listener, permissions, thread, errorListener, backend, null);
+  }
+
+  DexterRequest(MultiplePermissionsListener listener, Collection<String> permissions,
+      Thread thread, PermissionRequestErrorListener errorListener, RequestBackend backend,
+      Continuation continuation) {
+    this(listener, permissions, thread, errorListener, backend, continuation, nextId(),
+        DexterEvents.NONE);
+  }
+
+  DexterRequest(MultiplePermissionsListener listener, Collection<String> permissions,
+      Thread thread, PermissionRequestErrorListener errorListener, RequestBackend backend,
+      Continuation continuation, long id, DexterEventListener eventListener) {
+    this.id = id;
+    this.eventListener = eventListener;
+    this.listener = listener;
+    this.permissions = permissions;
+    this.thread = thread;
+    this.errorListener = errorListener;
+    this.backend = backend;
+    this.continuation = continuation;
+    this.coalescedPermissions = new LinkedHashSet<>(permissions);
+  }
+
+  /**
+   * Returns a new request id, unique for the life of the process
+   */
+  static long nextId() {
+    return NEXT_ID.incrementAndGet();
+  }
+
+  long getId() {
+    return id;
+  }
+
+  /**
+   * Listener notified when the request moves from one phase to the next one, or
+   * {@link DexterEvents#NONE} if nobody is observing it
+   */
+  DexterEventListener getEventListener() {
+    return eventListener;
+  }
+
+  /**
+   * Returns whether an event listener is observing this request
+   */
+  boolean isObserved() {
+    return eventListener != DexterEvents.NONE;
+  }
+
+  /**
+   * Listener notified with the state of the permissions of this request and of every request
+   * coalesced into it. Each listener still attached is only notified about its own permissions,
+   * rationales included.
+   */
+  StreamingMultiplePermissionsListener getListener() {
+    return coalescingListener;
+  }
+
+  /**
+   * Permissions to request, including the ones asked by the requests coalesced into this one
+   */
+  Collection<String> getPermissions() {
+    return coalescedPermissions;
+  }
+
+  /**
+   * Component used to show the system permission dialog if this request needs it
+   */
+  RequestBackend getBackend() {
+    return backend;
+  }
+
+  /**
+   * Returns the request to start right after this one finishes, before any queued request, or
+   * null if there is none
+   */
+  DexterRequest next(MultiplePermissionsReport report) {
+    return continuation != null ? continuation.next(report) : null;
+  }
+
+  /**
+   * Returns whether this request can be coalesced into another one. Requests followed by other
+   * ones can not, as they have to be processed on their own to know how to continue.
+   */
+  boolean isCoalescable() {
+    return continuation == null;
+  }
+
+  /**
+   * Stops notifying the listener of this request, as done once it is cancelled. The request is
+   * still processed if other requests coalesced into it are waiting for it.
+   *
+   * @return the request to process, which is the one this request has been coalesced into, if
+   * any, or this one otherwise
+   */
+  DexterRequest detach() {
+    isDetached = true;
+    return coalescedInto != null ? coalescedInto : this;
+  }
+
+  /**
+   * Returns whether the listener of this request or of any request coalesced into it still has
+   * to be notified
+   */
+  boolean isAttached() {
+    if (!isDetached) {
+      return true;
+    }
+    for (DexterRequest request : coalescedRequests) {
+      if (!request.isDetached) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether all the permissions of the given request are already part of this one
+   */
+  boolean contains(DexterRequest request) {
+    return coalescedPermissions.containsAll(request.permissions);
+  }
+
+  /**
+   * Returns whether any of the permissions of the given request is already part of this one
+   */
+  boolean overlaps(DexterRequest request) {
+    for (String permission : request.permissions) {
+      if (coalescedPermissions.contains(permission)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Attaches a request to this one so it is notified when this one finishes. Its permissions not
+   * included yet are added to the ones to request, so this must not be called once this request
+   * has started unless {@link #contains(DexterRequest)} is true.
+   */
+  void coalesce(DexterRequest request) {
+    request.coalescedInto = this;
+    coalescedRequests.add(request);
+    coalescedPermissions.addAll(request.permissions);
+  }
+
+  /**
+   * Notifies this request and the ones coalesced into it that they have been discarded
+   */
+  void onDiscarded() {
+    notifyError(DexterError.REQUEST_ONGOING);
+    for (DexterRequest request : coalescedRequests) {
+      request.notifyError(DexterError.REQUEST_ONGOING);
+    }
+  }
+
+  @Override public String toString() {
+    return "DexterRequest{"
+        + "id=" + id
+        + ", permissions=" + coalescedPermissions
+        + ", listener=" + listener
+        + ", backend=" + backend
+        + ", coalescedRequests=" + coalescedRequests.size()
+        + ", hasContinuation=" + (continuation != null)
+        + ", detached=" + isDetached
+        + '}';
+  }
+
+  private void notifyError(final DexterError error) {
+    if (isDetached) {
+      return;
+    }
+    if (isObserved()) {
+      eventListener.onRequestFailed(id, error, System.nanoTime());
+    }
+    thread.execute(new Runnable() {
+      @Override public void run() {
+        errorListener.onError(error);
+      }
+    });
+  }
+
+  private void notifyPermissionsChecked(MultiplePermissionsReport report,
+      Set<String> reportedPermissions) {
+    if (isDetached) {
+      return;
+    }
+    Set<String> requestedPermissions = new HashSet<>(permissions);
+    if (requestedPermissions.size() == reportedPermissions.size()) {
+      listener.onPermissionsChecked(report);
+    } else {
+      listener.onPermissionsChecked(report.filter(requestedPermissions));
+    }
+  }
+
+  /**
+   * Creates the request to process once a request finishes
+   */
+  interface Continuation {
+    DexterRequest next(MultiplePermissionsReport report);
+  }
+
+  private void notifyPermissionGranted(PermissionGrantedResponse response) {
+    if (!isDetached && listener instanceof StreamingMultiplePermissionsListener
+        && permissions.contains(response.getPermissionName())) {
+      ((StreamingMultiplePermissionsListener) listener).onPermissionGranted(response);
+    }
+  }
+
+  private void notifyPermissionDenied(PermissionDeniedResponse response) {
+    if (!isDetached && listener instanceof StreamingMultiplePermissionsListener
+        && permissions.contains(response.getPermissionName())) {
+      ((StreamingMultiplePermissionsListener) listener).onPermissionDenied(response);
+    }
+  }
+
+  private final class CoalescingListener implements StreamingMultiplePermissionsListener {
+
+    @Override public void onPermissionGranted(PermissionGrantedResponse response) {
+      notifyPermissionGranted(response);
+      for (DexterRequest request : coalescedRequests) {
+        request.notifyPermissionGranted(response);
+      }
+    }
+
+    @Override public void onPermissionDenied(PermissionDeniedResponse response) {
+      notifyPermissionDenied(response);
+      for (DexterRequest request : coalescedRequests) {
+        request.notifyPermissionDenied(response);
+      }
+    }
+
+
+    @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
+      if (coalescedRequests.isEmpty()) {
+        if (!isDetached) {
+          listener.onPermissionsChecked(report);
+        }
+        return;
+      }
+
+      notifyPermissionsChecked(report, coalescedPermissions);
+      for (DexterRequest request : coalescedRequests) {
+        request.notifyPermissionsChecked(report, coalescedPermissions);
+      }
+    }
+
+    /*
+     * Every attached request asking for any of the permissions is shown a rationale with just
+     * its own ones. If none of them is, the permissions are requested anyway, as the request is
+     * only processed while someone is waiting for it.
+     */
+    @Override public void onPermissionRationaleShouldBeShown(List<PermissionRequest> permissions,
+        PermissionToken token) {
+      List<DexterRequest> requests = new ArrayList<>();
+      List<List<PermissionRequest>> rationales = new ArrayList<>();
+      addRationale(DexterRequest.this, permissions, requests, rationales);
+      for (DexterRequest request : coalescedRequests) {
+        addRationale(request, permissions, requests, rationales);
+      }
+
+      if (requests.isEmpty()) {
+        token.continuePermissionRequest();
+      } else if (requests.size() == 1) {
+        requests.get(0).listener.onPermissionRationaleShouldBeShown(rationales.get(0), token);
+      } else {
+        SharedPermissionToken sharedToken = new SharedPermissionToken(token, requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+          requests.get(i).listener.onPermissionRationaleShouldBeShown(rationales.get(i),
+              sharedToken.newToken());
+        }
+      }
+    }
+
+    private void addRationale(DexterRequest request, List<PermissionRequest> permissions,
+        List<DexterRequest> requests, List<List<PermissionRequest>> rationales) {
+      if (request.isDetached) {
+        return;
+      }
+      List<PermissionRequest> rationale = new LinkedList<>();
+      for (PermissionRequest permission : permissions) {
+        if (request.permissions.contains(permission.getName())) {
+          rationale.add(permission);
+        }
+      }
+      if (!rationale.isEmpty()) {
+        requests.add(request);
+        rationales.add(rationale);
+      }
+    }
+
+    @Override public String toString() {
+      return String.valueOf(listener);
+    }
+  }
+
+  /**
+   * Token resolving a rationale shown to several coalesced requests at once. As all of them share
+   * the same system dialog, the permissions are requested as soon as any of them continues and
+   * only denied once every one of them has cancelled.
+   */
+  private static final class SharedPermissionToken {
+
+    private final PermissionToken token;
+    private final AtomicInteger pendingCancellations;
+    private final AtomicBoolean isResolved = new AtomicBoolean();
+
+    SharedPermissionToken(PermissionToken token, int requests) {
+      this.token = token;
+      this.pendingCancellations = new AtomicInteger(requests);
+    }
+
+    PermissionToken newToken() {
+      final AtomicBoolean isTokenResolved = new AtomicBoolean();
+      return new PermissionToken() {
+        @Override public void continuePermissionRequest() {
+          if (isTokenResolved.compareAndSet(false, true) && isResolved.compareAndSet(false, true)) {
+            token.continuePermissionRequest();
+          }
+        }
+
+        @Override public void cancelPermissionRequest() {
+          if (isTokenResolved.compareAndSet(false, true)
+              && pendingCancellations.decrementAndGet() == 0
+              && isResolved.compareAndSet(false, true)) {
+            token.cancelPermissionRequest();
+          }
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded queue holding the requests checked while another one is ongoing. This class is not
+ * thread safe, callers are expected to synchronize its usage.
+ */
+final class DexterRequestQueue {
+
+  private final Deque<DexterRequest> requests = new ArrayDeque<>();
+  private int capacity;
+  private QueueOverflowPolicy overflowPolicy;
+
+  DexterRequestQueue(int capacity, QueueOverflowPolicy overflowPolicy) {
+    setCapacity(capacity, overflowPolicy);
+  }
+
+  /**
+   * Updates the maximum number of queued requests. Requests already queued are kept even if they
+   * exceed the new capacity.
+   */
+  void setCapacity(int capacity, QueueOverflowPolicy overflowPolicy) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("The request queue capacity can not be negative");
+    }
+    this.capacity = capacity;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /**
+   * Adds a request to the end of the queue applying the overflow policy if the queue is full
+   *
+   * @return the queued request discarded to make room for the new one or null if none was
+   * discarded
+   * @throws DexterException if the queue is full and the new request can not be queued
+   */
+  DexterRequest offer(DexterRequest request) {
+    DexterRequest discardedRequest = null;
+
+    if (requests.size() >= capacity) {
+      if (overflowPolicy != QueueOverflowPolicy.DISCARD_OLDEST_REQUEST || requests.isEmpty()) {
+        throw new DexterException("The queue of pending Dexter requests is full",
+            DexterError.REQUEST_ONGOING);
+      }
+      discardedRequest = requests.pollFirst();
+    }
+
+    requests.addLast(request);
+    return discardedRequest;
+  }
+
+  /**
+   * Attaches the request to the ongoing one, if it already asks for all the permissions of the
+   * new request, or to the first queued request asking for any of them. Requests are never
+   * coalesced if the queue has no capacity or if they are followed by other requests.
+   *
+   * @return true if the request has been coalesced into another one
+   */
+  boolean coalesce(DexterRequest request, DexterRequest ongoingRequest) {
+    if (capacity == 0 || !request.isCoalescable()) {
+      return false;
+    }
+
+    if (ongoingRequest != null && ongoingRequest.contains(request)) {
+      ongoingRequest.coalesce(request);
+      return true;
+    }
+
+    for (DexterRequest queuedRequest : requests) {
+      if (queuedRequest.overlaps(request)) {
+        queuedRequest.coalesce(request);
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns whether the request is waiting in the queue
+   */
+  boolean contains(DexterRequest request) {
+    return requests.contains(request);
+  }
+
+  /**
+   * Removes a queued request
+   *
+   * @return true if the request was waiting in the queue
+   */
+  boolean remove(DexterRequest request) {
+    return requests.remove(request);
+  }
+
+  /**
+   * Removes and returns the oldest queued request or null if the queue is empty
+   */
+  DexterRequest poll() {
+    return requests.pollFirst();
+  }
+
+  int size() {
+    return requests.size();
+  }
+
+  /**
+   * Returns a copy of the queued requests, oldest first
+   */
+  List<DexterRequest> getRequests() {
+    return new ArrayList<>(requests);
+  }
+
+  @Override public String toString() {
+    return "DexterRequestQueue{"
+        + "size=" + requests.size()
+        + ", capacity=" + capacity
+        + ", overflowPolicy=" + overflowPolicy
+        + '}';
+  }
+}
@@ -0,0 +1,833 @@
+/*
+ * Copyright (C) 2015 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.event.DexterEventListener;
+import com.karumi.dexter.listener.multi.BaseStreamingMultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * State machine processing the permission requests one after another. It does not depend on any
+ * platform class: permission states are resolved through a {@link PermissionService}, the system
+ * dialog is shown by a {@link PermissionRequestHost} and hosts are started by a
+ * {@link HostLauncher}
+ */
+final class DexterStateMachine {
+
+  private static final int PERMISSIONS_REQUEST_CODE = 42;
+  private static final int DEFAULT_REQUEST_QUEUE_CAPACITY = Integer.MAX_VALUE;
+  private static final int TRANSITION_LOG_CAPACITY = 32;
+  private static final StreamingMultiplePermissionsListener EMPTY_LISTENER =
+      new BaseStreamingMultiplePermissionsListener();
+
+  private final PermissionService permissionService;
+  private final HostLauncher hostLauncher;
+  private final HostReleaseScheduler hostReleaseScheduler;
+  private final Thread mainThread;
+  private final GrantedRequestFastPath grantedRequestFastPath;
+  private final Collection<String> pendingPermissions;
+  private final DexterRequestQueue requestQueue;
+  private final AtomicBoolean isRequestingPermission;
+  private final AtomicBoolean rationaleAccepted;
+  private final AtomicBoolean isShowingNativeDialog;
+  private final TransitionLog transitionLog = new TransitionLog(TRANSITION_LOG_CAPACITY);
+  private final Object pendingPermissionsMutex = new Object();
+
+  private PermissionRequestHost host;
+  private Runnable pendingHostRelease;
+  private long hostLingerTimeMillis = 0;
+  private volatile DexterRequest ongoingRequest;
+  private volatile DexterRequest observedRequest;
+  private volatile DexterEventListener eventListener = DexterEvents.NONE;
+  private StreamingMultiplePermissionsListener listener = EMPTY_LISTENER;
+  private MultiplePermissionsReport multiplePermissionsReport = new MultiplePermissionsReport();
+
+  /**
+   * @param mainThread Thread the results of the system dialog are delivered on
+   */
+  DexterStateMachine(PermissionService permissionService, HostLauncher hostLauncher,
+      HostReleaseScheduler hostReleaseScheduler, Thread mainThread) {
+    this.permissionService = permissionService;
+    this.hostLauncher = hostLauncher;
+    this.hostReleaseScheduler = hostReleaseScheduler;
+    this.mainThread = mainThread;
+    this.grantedRequestFastPath = new GrantedRequestFastPath(permissionService);
+    this.pendingPermissions = new TreeSet<>();
+    this.requestQueue = new DexterRequestQueue(DEFAULT_REQUEST_QUEUE_CAPACITY,
+        QueueOverflowPolicy.REJECT_NEW_REQUEST);
+    this.isRequestingPermission = new AtomicBoolean();
+    this.rationaleAccepted = new AtomicBoolean();
+    this.isShowingNativeDialog = new AtomicBoolean();
+  }
+
+  /**
+   * Configures how many requests can wait while another one is ongoing and what to do with new
+   * requests once that limit is reached
+   *
+   * @param capacity Maximum number of queued requests. Zero means no request can be checked
+   * until the ongoing one finishes
+   * @param overflowPolicy Strategy applied when a request is checked and the queue is full
+   */
+  void setRequestQueueCapacity(int capacity, QueueOverflowPolicy overflowPolicy) {
+    synchronized (requestQueue) {
+      requestQueue.setCapacity(capacity, overflowPolicy);
+    }
+  }
+
+  /**
+   * Configures how long the component used to request permissions is kept alive once there are no
+   * more requests to process, so requests checked within that window reuse it instead of starting
+   * a new one
+   *
+   * @param lingerTimeMillis Time to wait before releasing the host. Zero releases it right away
+   */
+  void setHostLingerTime(long lingerTimeMillis) {
+    if (lingerTimeMillis < 0) {
+      throw new IllegalArgumentException("The linger time can not be negative");
+    }
+    synchronized (requestQueue) {
+      hostLingerTimeMillis = lingerTimeMillis;
+    }
+  }
+
+  /**
+   * Configures the listener notified about the phases of every request, on top of the one
+   * configured for each request
+   */
+  void setEventListener(DexterEventListener eventListener) {
+    this.eventListener = eventListener != null ? eventListener : DexterEvents.NONE;
+  }
+
+  /**
+   * Prints the state of the state machine, taken at once so it is consistent, followed by its last
+   * transitions. Used to find out why a request never finishes
+   */
+  void dump(PrintWriter writer) {
+    StringWriter state = new StringWriter();
+    PrintWriter stateWriter = new PrintWriter(state);
+    synchronized (pendingPermissionsMutex) {
+      synchronized (requestQueue) {
+        dumpState(stateWriter);
+      }
+    }
+
+    writer.println("Dexter state:");
+    writer.print(state);
+    writer.println("Last transitions:");
+    transitionLog.dump(writer, "  ");
+    writer.flush();
+  }
+
+  /**
+   * Checks the state of a collection of permissions reporting their state to the listener when all
+   * of them are resolved. If another request is ongoing this one is queued and will be processed
+   * as soon as all the previous ones are completed
+   *
+   * @param listener The class that will be reported when the state of all the permissions is ready
+   * @param permissions Collection of permission names
+   * @param thread thread the Listener methods will be called on
+   * @param errorListener The class that will be reported if the request is discarded from the
+   * queue of pending requests
+   * @param backend Component used to show the system permission dialog if needed
+   * @param eventListener Listener notified about the phases of the request besides the global one
+   * @param canSkipRequest Whether the listener can be notified right away, without creating a
+   * request, if every permission is known to be granted
+   * @return the request, that can be passed to {@link #cancelRequest(DexterRequest)}, or null if
+   * every permission was known to be granted and the listener has already been notified
+   */
+  DexterRequest checkPermissions(MultiplePermissionsListener listener,
+      Collection<String> permissions, Thread thread, PermissionRequestErrorListener errorListener,
+      RequestBackend backend, DexterEventListener eventListener, boolean canSkipRequest) {
+    checkRequestSomePermission(permissions);
+
+    long requestId = DexterRequest.nextId();
+    DexterEventListener requestEventListener =
+        DexterEvents.combine(this.eventListener, eventListener);
+    boolean isObserved = requestEventListener != DexterEvents.NONE;
+    if (isObserved) {
+      requestEventListener.onRequestChecked(requestId, permissions, System.nanoTime());
+    }
+
+    if (canSkipRequest && permissionService.isAvailable()
+        && grantedRequestFastPath.check(listener, permissions, thread)) {
+      if (isObserved) {
+        requestEventListener.onRequestResolvedFromCache(requestId, System.nanoTime());
+      }
+      return null;
+    }
+
+    DexterRequest request = new DexterRequest(
+        new MultiplePermissionListenerThreadDecorator(listener, thread, requestId,
+            requestEventListener),
+        permissions, thread, errorListener, backend, null, requestId, requestEventListener);
+    checkRequest(request);
+    return request;
+  }
+
+  /**
+   * Cancels a request that has not finished yet without notifying its listener. Requests other
+   * ones have been coalesced into, or that have been coalesced into another one, are still
+   * processed while any of those is waiting for them. The cancellation is processed on the main
+   * thread, where the results of the system dialog are delivered
+   */
+  void cancelRequest(final DexterRequest request) {
+    mainThread.execute(new Runnable() {
+      @Override public void run() {
+        handleCancelRequest(request);
+      }
+    });
+  }
+
+  /**
+   * Checks the stages of a pipeline one after another. Each stage is started as soon as the
+   * previous one finishes, before any other queued request, and reuses the same host
+   *
+   * @param pipeline Stages to check
+   * @param listener The class that will be reported when every stage and the whole pipeline are
+   * resolved
+   * @param thread thread the Listener methods will be called on
+   * @param errorListener The class that will be reported if the pipeline is discarded from the
+   * queue of pending requests
+   * @param backend Component used to show the system permission dialog if needed
+   * @param eventListener Listener notified about the phases of the request of each stage besides
+   * the global one
+   * @return the session running the pipeline, that can be passed to
+   * {@link #cancelPipeline(PermissionPipelineSession)}
+   */
+  PermissionPipelineSession checkPipeline(PermissionPipeline pipeline,
+      PermissionPipelineListener listener, Thread thread,
+      PermissionRequestErrorListener errorListener, RequestBackend backend,
+      DexterEventListener eventListener) {
+    for (PermissionPipeline.Stage stage : pipeline.getStages()) {
+      checkRequestSomePermission(stage.getPermissions());
+    }
+
+    PermissionPipelineSession session = new PermissionPipelineSession(pipeline, listener, thread,
+        errorListener, backend, DexterEvents.combine(this.eventListener, eventListener));
+    DexterRequest firstRequest = session.firstRequest();
+    if (firstRequest.isObserved()) {
+      firstRequest.getEventListener()
+          .onRequestChecked(firstRequest.getId(), firstRequest.getPermissions(), System.nanoTime());
+    }
+    checkRequest(firstRequest);
+    return session;
+  }
+
+  /**
+   * Cancels the ongoing stage of a pipeline and skips the rest of them without notifying its
+   * listener
+   */
+  void cancelPipeline(PermissionPipelineSession session) {
+    cancelRequest(session.cancel());
+  }
+
+  /**
+   * Method called whenever a component able to request permissions is ready to be used.
+   */
+  void onHostReady(PermissionRequestHost host) {
+    Tracer tracer = Tracing.beginSection("Dexter#onHostReady");
+    try {
+      handleHostReady(host);
+    } finally {
+      Tracing.endSection(tracer);
+    }
+  }
+
+  /**
+   * Method called whenever a component able to request permissions has been destroyed.
+   * @param oldHost the host that was destroyed
+   */
+  void onHostDestroyed(PermissionRequestHost oldHost) {
+    if (oldHost.equals(host)) {
+      logTransition("host destroyed");
+      host = null;
+      rationaleAccepted.set(false);
+      isShowingNativeDialog.set(false);
+      listener = EMPTY_LISTENER;
+      observedRequest = null;
+      DexterRequest nextRequest = pollNextRequest();
+      if (nextRequest != null) {
+        startRequest(nextRequest);
+      }
+    }
+  }
+
+  /**
+   * Method called with the result of the system permission dialog
+   */
+  void onPermissionsRequested(Collection<String> grantedPermissions,
+      Collection<String> deniedPermissions) {
+    DexterRequest request = observedRequest;
+    if (request != null) {
+      request.getEventListener().onSystemDialogDismissed(request.getId(), System.nanoTime());
+    }
+
+    logTransition("permission results received");
+    Tracer tracer = Tracing.beginSection("Dexter#onPermissionsRequested");
+    try {
+      onPermissionRequestGranted(grantedPermissions);
+      onPermissionRequestDenied(deniedPermissions);
+    } finally {
+      Tracing.endSection(tracer);
+    }
+  }
+
+  /**
+   * Method called whenever the permissions has been granted by the user. Permissions the ongoing
+   * request is not waiting for, as the ones of a late result, only update the cache
+   */
+  void onPermissionRequestGranted(Collection<String> permissions) {
+    permissionService.onPermissionsGranted(permissions);
+    updatePermissionsAsGranted(retainPendingPermissions(permissions));
+  }
+
+  /**
+   * Method called whenever the permissions has been denied by the user. Permissions the ongoing
+   * request is not waiting for, as the ones of a late result, only update the cache
+   */
+  void onPermissionRequestDenied(Collection<String> permissions) {
+    permissionService.onPermissionsDenied(permissions);
+    updatePermissionsAsDenied(retainPendingPermissions(permissions));
+  }
+
+  /**
+   * Method called when the user has been informed with a rationale and agrees to continue
+   * with the permission request process
+   */
+  void onContinuePermissionRequest() {
+    logTransition("rationale accepted");
+    notifyRationaleResolved(true);
+    rationaleAccepted.set(true);
+    requestPermissionsToSystem(pendingPermissions);
+  }
+
+  /**
+   * Method called when the user has been informed with a rationale and decides to cancel
+   * the permission request process
+   */
+  void onCancelPermissionRequest() {
+    logTransition("rationale cancelled");
+    notifyRationaleResolved(false);
+    rationaleAccepted.set(false);
+    updatePermissionsAsDenied(pendingPermissions);
+  }
+
+  private void handleCancelRequest(DexterRequest request) {
+    DexterRequest nextRequest = null;
+    synchronized (pendingPermissionsMutex) {
+      DexterRequest processedRequest;
+      boolean wasQueued;
+      synchronized (requestQueue) {
+        processedRequest = request.detach();
+        wasQueued = requestQueue.contains(processedRequest);
+        if (!wasQueued && ongoingRequest != processedRequest) {
+          return;
+        }
+        if (processedRequest.isAttached()) {
+          logTransition("request detached", request);
+          processedRequest = null;
+        } else {
+          requestQueue.remove(processedRequest);
+        }
+      }
+
+      if (processedRequest != null) {
+        logTransition("request cancelled", processedRequest);
+      }
+      if (processedRequest != null && !wasQueued) {
+        listener = EMPTY_LISTENER;
+        observedRequest = null;
+        // The system dialog can not be dismissed, so the next request waits for its results
+        // instead of asking for permissions again while it is still showing
+        if (!isShowingNativeDialog.get()) {
+          pendingPermissions.clear();
+          rationaleAccepted.set(false);
+          nextRequest = pollNextRequest();
+          if (nextRequest == null && host != null) {
+            releaseHost(host);
+          }
+        }
+      }
+    }
+
+    if (request.isObserved()) {
+      request.getEventListener().onRequestCancelled(request.getId(), System.nanoTime());
+    }
+    if (nextRequest != null) {
+      startRequest(nextRequest);
+    }
+  }
+
+  private void handleHostReady(PermissionRequestHost host) {
+    this.host = host;
+    logTransition(host != null ? "host ready" : "host missing");
+
+    DexterRequest request = observedRequest;
+    if (request != null && host != null) {
+      request.getEventListener().onHostReady(request.getId(), System.nanoTime());
+    }
+
+    PermissionStates permissionStates = null;
+    synchronized (pendingPermissionsMutex) {
+      if (host != null) {
+        permissionStates = getPermissionStates(pendingPermissions);
+      }
+    }
+
+    if (permissionStates != null) {
+      handleDeniedPermissions(permissionStates.getDeniedPermissions());
+      updatePermissionsAsDenied(permissionStates.getImpossibleToGrantPermissions());
+      updatePermissionsAsGranted(permissionStates.getGrantedPermissions());
+    }
+  }
+
+  private Collection<String> retainPendingPermissions(Collection<String> permissions) {
+    Collection<String> retainedPermissions = new LinkedList<>();
+    synchronized (pendingPermissionsMutex) {
+      for (String permission : permissions) {
+        if (pendingPermissions.contains(permission)) {
+          retainedPermissions.add(permission);
+        }
+      }
+    }
+    return retainedPermissions;
+  }
+
+  /**
+   * Starts the native request permissions process
+   */
+  private void requestPermissionsToSystem(Collection<String> permissions) {
+    if (!isShowingNativeDialog.get()) {
+      logTransition("permission dialog shown");
+      DexterRequest request = observedRequest;
+      if (request != null) {
+        request.getEventListener().onSystemDialogShown(request.getId(), System.nanoTime());
+      }
+      host.requestPermissions(permissions.toArray(new String[0]), PERMISSIONS_REQUEST_CODE);
+    }
+    isShowingNativeDialog.set(true);
+  }
+
+  private PermissionStates getPermissionStates(Collection<String> pendingPermissions) {
+    PermissionStates permissionStates = new PermissionStates();
+    int[] states = checkSelfPermissions(pendingPermissions);
+
+    int index = 0;
+    for (String permission : pendingPermissions) {
+      int permissionState = states[index++];
+
+      switch (permissionState) {
+        case PermissionService.PERMISSION_DENIED_APP_OP:
+          permissionStates.addImpossibleToGrantPermission(permission);
+          break;
+        case PermissionService.PERMISSION_DENIED:
+          permissionStates.addDeniedPermission(permission);
+          break;
+        case PermissionService.PERMISSION_GRANTED:
+        default:
+          permissionStates.addGrantedPermission(permission);
+          break;
+      }
+    }
+
+    return permissionStates;
+  }
+
+  private int[] checkSelfPermissions(Collection<String> permissions) {
+    int[] permissionStates = new int[permissions.size()];
+    permissionService.checkSelfPermissions(permissions.toArray(new String[0]), permissionStates);
+    return permissionStates;
+  }
+
+  private void handleDeniedPermissions(Collection<String> permissions) {
+    if (permissions.isEmpty()) {
+      return;
+    }
+
+    List<PermissionRequest> shouldShowRequestRationalePermissions = new LinkedList<>();
+
+    for (String permission : permissions) {
+      if (host.shouldShowRequestPermissionRationale(permission)) {
+        shouldShowRequestRationalePermissions.add(PermissionRequest.from(permission));
+      }
+    }
+
+    if (shouldShowRequestRationalePermissions.isEmpty()) {
+      requestPermissionsToSystem(permissions);
+    } else if (!rationaleAccepted.get()) {
+      logTransition("rationale shown");
+      DexterRequest request = observedRequest;
+      if (request != null) {
+        request.getEventListener().onRationaleShown(request.getId(), System.nanoTime());
+      }
+      PermissionRationaleToken permissionToken = new PermissionRationaleToken(this);
+      listener.onPermissionRationaleShouldBeShown(shouldShowRequestRationalePermissions,
+          permissionToken);
+    }
+  }
+
+  private void updatePermissionsAsGranted(Collection<String> permissions) {
+    for (String permission : permissions) {
+      PermissionGrantedResponse response = PermissionGrantedResponse.from(permission);
+      if (multiplePermissionsReport.addGrantedPermissionResponse(response)) {
+        listener.onPermissionGranted(response);
+      }
+    }
+    onPermissionsChecked(permissions);
+  }
+
+  private void updatePermissionsAsDenied(Collection<String> permissions) {
+    for (String permission : permissions) {
+      PermissionDeniedResponse response = PermissionDeniedResponse.from(permission,
+          host != null && host.isPermissionPermanentlyDenied(permission));
+      if (multiplePermissionsReport.addDeniedPermissionResponse(response)) {
+        listener.onPermissionDenied(response);
+      }
+    }
+    onPermissionsChecked(permissions);
+  }
+
+  private void onPermissionsChecked(Collection<String> permissions) {
+    if (pendingPermissions.isEmpty()) {
+      return;
+    }
+
+    MultiplePermissionsListener currentListener;
+    MultiplePermissionsReport currentReport;
+    DexterRequest nextRequest;
+    synchronized (pendingPermissionsMutex) {
+      pendingPermissions.removeAll(permissions);
+      if (!pendingPermissions.isEmpty()) {
+        return;
+      }
+
+      nextRequest = continueOngoingRequest(multiplePermissionsReport);
+      // Just in case heck to avoid NPE if the OS destroys the activity before
+      // the permission is checked. Issues #243 and #221
+      if (nextRequest == null && host != null) {
+        releaseHost(host);
+      }
+      rationaleAccepted.set(false);
+      isShowingNativeDialog.set(false);
+      currentListener = listener;
+      currentReport = multiplePermissionsReport;
+      listener = EMPTY_LISTENER;
+      observedRequest = null;
+    }
+
+    currentListener.onPermissionsChecked(currentReport);
+    if (nextRequest != null) {
+      startRequest(nextRequest);
+    }
+  }
+
+  /**
+   * Finishes the host right away or once the linger time has passed if no other request has
+   * started using it by then
+   */
+  private void releaseHost(PermissionRequestHost host) {
+    logTransition("host released", null);
+    HostRelease release;
+    synchronized (requestQueue) {
+      if (hostLingerTimeMillis == 0) {
+        host.finish();
+        return;
+      }
+      release = new HostRelease(host);
+      pendingHostRelease = release;
+    }
+    hostReleaseScheduler.schedule(release, hostLingerTimeMillis);
+  }
+
+  /**
+   * Coalesces the request into another one asking for the same permissions or queues it if there
+   * is another request ongoing
+   *
+   * @return true if the request has been coalesced or queued, false if it has to be started right
+   * away
+   */
+  private boolean enqueueIfRequestOngoing(DexterRequest request) {
+    boolean isCoalesced;
+    DexterRequest discardedRequest = null;
+    try {
+      synchronized (requestQueue) {
+        if (!isRequestingPermission.getAndSet(true)) {
+          ongoingRequest = request;
+          pendingHostRelease = null;
+          return false;
+        }
+        isCoalesced = requestQueue.coalesce(request, ongoingRequest);
+        if (!isCoalesced) {
+          discardedRequest = requestQueue.offer(request);
+        }
+      }
+    } catch (DexterException e) {
+      logTransition("request rejected", request);
+      if (request.isObserved()) {
+        request.getEventListener().onRequestFailed(request.getId(), e.error, System.nanoTime());
+      }
+      throw e;
+    }
+
+    logTransition(isCoalesced ? "request coalesced" : "request queued", request);
+    if (discardedRequest != null) {
+      logTransition("request discarded", discardedRequest);
+    }
+    if (isCoalesced && request.isObserved()) {
+      request.getEventListener().onRequestCoalesced(request.getId(), System.nanoTime());
+    }
+
+    if (discardedRequest != null) {
+      discardedRequest.onDiscarded();
+    }
+    return true;
+  }
+
+  /**
+   * Takes the request following the ongoing one, if any, or the next queued request otherwise
+   */
+  private DexterRequest continueOngoingRequest(MultiplePermissionsReport report) {
+    DexterRequest currentRequest;
+    synchronized (requestQueue) {
+      currentRequest = ongoingRequest;
+    }
+
+    logTransition("request finished", currentRequest);
+    DexterRequest followingRequest = currentRequest != null ? currentRequest.next(report) : null;
+    if (followingRequest == null) {
+      return pollNextRequest();
+    }
+
+    synchronized (requestQueue) {
+      ongoingRequest = followingRequest;
+    }
+    return followingRequest;
+  }
+
+  /**
+   * Takes the next queued request marking Dexter as idle if there are no more requests waiting
+   */
+  private DexterRequest pollNextRequest() {
+    synchronized (requestQueue) {
+      ongoingRequest = requestQueue.poll();
+      if (ongoingRequest == null) {
+        isRequestingPermission.set(false);
+        logTransition("idle", null);
+      }
+      return ongoingRequest;
+    }
+  }
+
+  private void checkRequestSomePermission(Collection<String> permissions) {
+    if (permissions.isEmpty()) {
+      throw new DexterException("Dexter has to be called with at least one permission",
+          DexterError.NO_PERMISSIONS_REQUESTED);
+    }
+  }
+
+  private void checkRequest(DexterRequest request) {
+    if (!permissionService.isAvailable()) {
+      return;
+    }
+
+    PermissionRequestHost currentHost = host;
+    if (currentHost != null && currentHost.isFinishing()) {
+      onHostDestroyed(currentHost);
+    }
+
+    if (!enqueueIfRequestOngoing(request)) {
+      startRequest(request);
+    }
+  }
+
+  private void startRequest(DexterRequest request) {
+    Collection<String> permissions = request.getPermissions();
+    synchronized (pendingPermissionsMutex) {
+      pendingPermissions.clear();
+      pendingPermissions.addAll(permissions);
+      multiplePermissionsReport = new MultiplePermissionsReport();
+      listener = request.getListener();
+      observedRequest = request.isObserved() ? request : null;
+    }
+
+    logTransition("request started", request);
+    DexterEventListener eventListener = request.getEventListener();
+    boolean isObserved = request.isObserved();
+    if (isObserved) {
+      eventListener.onRequestStarted(request.getId(), System.nanoTime());
+    }
+
+    if (!permissionService.isAvailable()) {
+      abandonRequest();
+      return;
+    }
+
+    boolean isEveryPermissionGranted = isEveryPermissionGranted(permissions);
+    if (isObserved) {
+      eventListener.onPermissionStatesChecked(request.getId(), isEveryPermissionGranted,
+          System.nanoTime());
+    }
+
+    if (isEveryPermissionGranted) {
+      updatePermissionsAsGranted(permissions);
+    } else if (host != null && !host.isFinishing()) {
+      onHostReady(host);
+    } else {
+      if (isObserved) {
+        eventListener.onHostLaunched(request.getId(), System.nanoTime());
+      }
+      logTransition("host launched", request);
+      boolean isLaunched;
+      Tracer tracer = Tracing.beginSection("Dexter#startHost");
+      try {
+        isLaunched = hostLauncher.launch(request.getBackend());
+      } finally {
+        Tracing.endSection(tracer);
+      }
+      if (!isLaunched) {
+        abandonRequest();
+      }
+    }
+  }
+
+  private void dumpState(PrintWriter writer) {
+    PermissionRequestHost currentHost = host;
+    writer.println("  isRequestingPermission=" + isRequestingPermission.get());
+    writer.println("  rationaleAccepted=" + rationaleAccepted.get());
+    writer.println("  isShowingNativeDialog=" + isShowingNativeDialog.get());
+    writer.println("  isAvailable=" + permissionService.isAvailable());
+    writer.println("  host=" + (currentHost != null ? currentHost.getClass().getSimpleName()
+        + " (finishing=" + currentHost.isFinishing() + ")" : "none"));
+    writer.println("  pendingHostRelease=" + (pendingHostRelease != null));
+    writer.println("  pendingPermissions=" + pendingPermissions);
+    writer.println("  listener=" + (listener == EMPTY_LISTENER ? "none" : listener));
+    writer.println("  ongoingRequest=" + (ongoingRequest != null ? ongoingRequest : "none"));
+    writer.println("  queue=" + requestQueue);
+    for (DexterRequest queuedRequest : requestQueue.getRequests()) {
+      writer.println("    " + queuedRequest);
+    }
+  }
+
+  /**
+   * Records a transition of the ongoing request
+   */
+  private void logTransition(String transition) {
+    logTransition(transition, ongoingRequest);
+  }
+
+  private void logTransition(String transition, DexterRequest request) {
+    transitionLog.add(transition, request != null ? request.getId() : 0);
+  }
+
+  private void notifyRationaleResolved(boolean accepted) {
+    DexterRequest request = observedRequest;
+    if (request != null) {
+      request.getEventListener()
+          .onRationaleResolved(request.getId(), accepted, System.nanoTime());
+    }
+  }
+
+  /**
+   * Drops the ongoing request without notifying its listener, as done when the context used to
+   * check it is no longer available, and moves on to the next queued one
+   */
+  private void abandonRequest() {
+    logTransition("request abandoned");
+    synchronized (pendingPermissionsMutex) {
+      pendingPermissions.clear();
+      listener = EMPTY_LISTENER;
+      observedRequest = null;
+    }
+
+    DexterRequest nextRequest = pollNextRequest();
+    if (nextRequest != null) {
+      startRequest(nextRequest);
+    }
+  }
+
+  private boolean isEveryPermissionGranted(Collection<String> permissions) {
+    int[] permissionStates = checkSelfPermissions(permissions);
+    for (int permissionState : permissionStates) {
+      if (permissionState != PermissionService.PERMISSION_GRANTED) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private final class HostRelease implements Runnable {
+    private final PermissionRequestHost host;
+
+    private HostRelease(PermissionRequestHost host) {
+      this.host = host;
+    }
+
+    @Override public void run() {
+      synchronized (requestQueue) {
+        if (pendingHostRelease == this && !isRequestingPermission.get()) {
+          logTransition("host finished after linger time", null);
+          pendingHostRelease = null;
+          host.finish();
+        }
+      }
+    }
+  }
+
+  private final class PermissionStates {
+    private final Collection<String> deniedPermissions = new LinkedList<>();
+    private final Collection<String> impossibleToGrantPermissions = new LinkedList<>();
+    private final Collection<String> grantedPermissions = new LinkedList<>();
+
+    private void addDeniedPermission(String permission) {
+      deniedPermissions.add(permission);
+    }
+
+    private void addImpossibleToGrantPermission(String permission) {
+      impossibleToGrantPermissions.add(permission);
+    }
+
+    private void addGrantedPermission(String permission) {
+      grantedPermissions.add(permission);
+    }
+
+    private Collection<String> getDeniedPermissions() {
+      return deniedPermissions;
+    }
+
+    private Collection<String> getGrantedPermissions() {
+      return grantedPermissions;
+    }
+
+    public Collection<String> getImpossibleToGrantPermissions() {
+      return impossibleToGrantPermissions;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with fixed buckets that can be recorded from any thread without locking
+ */
+final class FixedBucketHistogram {
+
+  static final long[] BUCKET_UPPER_BOUNDS_MILLIS =
+      {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, Long.MAX_VALUE};
+  private static final long NANOS_PER_MILLI = 1000000L;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length);
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  void record(long nanos) {
+    if (nanos < 0) {
+      return;
+    }
+
+    long millis = nanos / NANOS_PER_MILLI;
+    int bucket = 0;
+    while (millis >= BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+      bucket++;
+    }
+    counts.incrementAndGet(bucket);
+    totalNanos.addAndGet(nanos);
+
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  DexterMetrics.LatencyHistogram snapshot() {
+    long[] bucketCounts = new long[counts.length()];
+    for (int i = 0; i < bucketCounts.length; i++) {
+      bucketCounts[i] = counts.get(i);
+    }
+    return new DexterMetrics.LatencyHistogram(BUCKET_UPPER_BOUNDS_MILLIS, bucketCounts,
+        totalNanos.get(), maxNanos.get());
+  }
+}
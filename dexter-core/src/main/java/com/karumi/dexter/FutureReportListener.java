@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
+import java.util.List;
+
+/**
+ * Listener forwarding every update to the listeners of a request and completing a future with its
+ * final report. The future is completed before the listeners are notified, so nothing is notified
+ * once the future has been cancelled
+ */
+final class FutureReportListener implements StreamingMultiplePermissionsListener,
+    PermissionPipelineListener, PermissionRequestErrorListener {
+
+  private final MultiplePermissionsListener listener;
+  private final PermissionPipelineListener pipelineListener;
+  private final PermissionRequestErrorListener errorListener;
+  private final DexterFuture<MultiplePermissionsReport> future;
+
+  FutureReportListener(MultiplePermissionsListener listener,
+      PermissionRequestErrorListener errorListener,
+      DexterFuture<MultiplePermissionsReport> future) {
+    this(listener, null, errorListener, future);
+  }
+
+  FutureReportListener(PermissionPipelineListener pipelineListener,
+      PermissionRequestErrorListener errorListener,
+      DexterFuture<MultiplePermissionsReport> future) {
+    this(null, pipelineListener, errorListener, future);
+  }
+
+  private FutureReportListener(MultiplePermissionsListener listener,
+      PermissionPipelineListener pipelineListener, PermissionRequestErrorListener errorListener,
+      DexterFuture<MultiplePermissionsReport> future) {
+    this.listener = listener;
+    this.pipelineListener = pipelineListener;
+    this.errorListener = errorListener;
+    this.future = future;
+  }
+
+  /**
+   * Cancels the future when the request is cancelled without it knowing, as done when the
+   * lifecycle owner it is bound to is destroyed
+   */
+  void onRequestCancelled() {
+    future.cancel(false);
+  }
+
+  @Override public void onPermissionGranted(PermissionGrantedResponse response) {
+    if (!future.isDone() && listener instanceof StreamingMultiplePermissionsListener) {
+      ((StreamingMultiplePermissionsListener) listener).onPermissionGranted(response);
+    }
+  }
+
+  @Override public void onPermissionDenied(PermissionDeniedResponse response) {
+    if (!future.isDone() && listener instanceof StreamingMultiplePermissionsListener) {
+      ((StreamingMultiplePermissionsListener) listener).onPermissionDenied(response);
+    }
+  }
+
+  @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
+    if (future.complete(report)) {
+      listener.onPermissionsChecked(report);
+    }
+  }
+
+  @Override public void onStageChecked(int stage, MultiplePermissionsReport report) {
+    if (!future.isDone()) {
+      pipelineListener.onStageChecked(stage, report);
+    }
+  }
+
+  @Override public void onPipelineChecked(MultiplePermissionsReport report) {
+    if (future.complete(report)) {
+      pipelineListener.onPipelineChecked(report);
+    }
+  }
+
+  @Override public void onPermissionRationaleShouldBeShown(List<PermissionRequest> permissions,
+      PermissionToken token) {
+    if (listener != null) {
+      listener.onPermissionRationaleShouldBeShown(permissions, token);
+    } else {
+      pipelineListener.onPermissionRationaleShouldBeShown(permissions, token);
+    }
+  }
+
+  @Override public void onError(DexterError error) {
+    if (future.fail(new DexterException("The permission request could not be processed", error))) {
+      errorListener.onError(error);
+    }
+  }
+}
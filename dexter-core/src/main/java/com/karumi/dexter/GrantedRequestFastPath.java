@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Resolves requests whose permissions are all known to be granted without creating a request.
+ *
+ * The reports and responses of the last checked permission lists are kept and reused, so checking
+ * the same granted permissions again from the thread the listener is notified on does not
+ * allocate. Listeners can not modify reports, so sharing them is safe.
+ */
+final class GrantedRequestFastPath {
+
+  private static final int CAPACITY = 8;
+
+  private final GrantedPermissions grantedPermissions;
+  private final GrantedReport[] reports = new GrantedReport[CAPACITY];
+  private int nextReportIndex = 0;
+
+  GrantedRequestFastPath(GrantedPermissions grantedPermissions) {
+    this.grantedPermissions = grantedPermissions;
+  }
+
+  /**
+   * Notifies the listener right away if the caller is running on the given thread and every
+   * permission is known to be granted
+   *
+   * @return true if the listener has been notified, false if a regular request is needed
+   */
+  boolean check(MultiplePermissionsListener listener, Collection<String> permissions,
+      Thread thread) {
+    if (!(permissions instanceof List) || !(permissions instanceof RandomAccess)
+        || !thread.isCurrentThread()) {
+      return false;
+    }
+
+    List<String> permissionList = (List<String>) permissions;
+    if (!grantedPermissions.areGranted(permissionList)) {
+      return false;
+    }
+
+    GrantedReport grantedReport = getReport(permissionList);
+    if (listener instanceof StreamingMultiplePermissionsListener) {
+      StreamingMultiplePermissionsListener streamingListener =
+          (StreamingMultiplePermissionsListener) listener;
+      for (PermissionGrantedResponse response : grantedReport.responses) {
+        streamingListener.onPermissionGranted(response);
+      }
+    }
+    listener.onPermissionsChecked(grantedReport.report);
+    return true;
+  }
+
+  private synchronized GrantedReport getReport(List<String> permissions) {
+    for (GrantedReport grantedReport : reports) {
+      if (grantedReport != null && grantedReport.isFor(permissions)) {
+        return grantedReport;
+      }
+    }
+
+    GrantedReport grantedReport = new GrantedReport(permissions);
+    reports[nextReportIndex] = grantedReport;
+    nextReportIndex = (nextReportIndex + 1) % CAPACITY;
+    return grantedReport;
+  }
+
+  private static final class GrantedReport {
+    private final String[] permissions;
+    private final PermissionGrantedResponse[] responses;
+    private final MultiplePermissionsReport report = new MultiplePermissionsReport();
+
+    private GrantedReport(List<String> permissions) {
+      this.permissions = permissions.toArray(new String[0]);
+      for (String permission : this.permissions) {
+        report.addGrantedPermissionResponse(PermissionGrantedResponse.from(permission));
+      }
+      List<PermissionGrantedResponse> grantedResponses = report.getGrantedPermissionResponsesView();
+      this.responses = grantedResponses.toArray(new PermissionGrantedResponse[0]);
+    }
+
+    private boolean isFor(List<String> permissions) {
+      if (permissions.size() != this.permissions.length) {
+        return false;
+      }
+      for (int i = 0; i < this.permissions.length; i++) {
+        if (!this.permissions[i].equals(permissions.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  interface GrantedPermissions {
+    /**
+     * Returns whether every permission of the list is known to be granted. It must not query the
+     * Android permission system nor allocate
+     */
+    boolean areGranted(List<String> permissions);
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+/**
+ * Starts the {@link PermissionRequestHost} used to show the system permission dialog. Hosts have
+ * to notify the {@link DexterStateMachine} when they are ready to be used and when they are
+ * destroyed
+ */
+interface HostLauncher {
+
+  /**
+   * Starts a host using the given backend, or the default one if it is not available
+   *
+   * @return false if no host can be started, as when the context Dexter was called with is gone
+   */
+  boolean launch(RequestBackend backend);
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+/**
+ * Delays the release of a permission request host so it can be reused by the requests checked
+ * right after the previous one finishes
+ */
+interface HostReleaseScheduler {
+
+  /**
+   * Executes the release in the main thread once the delay has passed
+   */
+  void schedule(Runnable release, long delayMillis);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Adapts a {@link DexterFuture} to a {@link ListenableFuture}. Dexter does not depend on the
+ * ListenableFuture artifact at runtime, add com.google.guava:listenablefuture or Guava to your
+ * dependencies to use it.
+ */
+public final class ListenableFutureAdapter {
+
+  private ListenableFutureAdapter() {
+  }
+
+  public static <V> ListenableFuture<V> from(final DexterFuture<V> future) {
+    return new ListenableFuture<V>() {
+      @Override public void addListener(Runnable listener, Executor executor) {
+        future.addListener(listener, executor);
+      }
+
+      @Override public boolean cancel(boolean mayInterruptIfRunning) {
+        return future.cancel(mayInterruptIfRunning);
+      }
+
+      @Override public boolean isCancelled() {
+        return future.isCancelled();
+      }
+
+      @Override public boolean isDone() {
+        return future.isDone();
+      }
+
+      @Override public V get() throws InterruptedException, ExecutionException {
+        return future.get();
+      }
+
+      @Override public V get(long timeout, TimeUnit unit)
+          throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(timeout, unit);
+      }
+    };
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import com.karumi.dexter.listener.event.BaseDexterEventListener;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregates the events of every request into counters and latency histograms. Every update is
+ * a single atomic operation, so it can be notified from any thread and snapshots never block
+ * the requests being processed.
+ */
+final class MetricsRegistry extends BaseDexterEventListener {
+
+  private static final DexterError[] ERRORS = DexterError.values();
+
+  private final AtomicLong requestsChecked = new AtomicLong();
+  private final AtomicLong requestsStarted = new AtomicLong();
+  private final AtomicLong requestsCompleted = new AtomicLong();
+  private final AtomicLong requestsResolvedFromCache = new AtomicLong();
+  private final AtomicLong requestsCoalesced = new AtomicLong();
+  private final AtomicLong requestsCancelled = new AtomicLong();
+  private final AtomicLongArray requestsFailed = new AtomicLongArray(ERRORS.length);
+  private final FixedBucketHistogram activityLaunchLatency = new FixedBucketHistogram();
+  private final FixedBucketHistogram userDecisionLatency = new FixedBucketHistogram();
+  private final FixedBucketHistogram dispatchLatency = new FixedBucketHistogram();
+  private final PhaseTimer activityLaunchTimer = new PhaseTimer(activityLaunchLatency);
+  private final PhaseTimer rationaleTimer = new PhaseTimer(userDecisionLatency);
+  private final PhaseTimer systemDialogTimer = new PhaseTimer(userDecisionLatency);
+  private final PhaseTimer dispatchTimer = new PhaseTimer(dispatchLatency);
+
+  @Override public void onRequestChecked(long requestId, Collection<String> permissions,
+      long timestampNanos) {
+    requestsChecked.incrementAndGet();
+  }
+
+  @Override public void onRequestResolvedFromCache(long requestId, long timestampNanos) {
+    requestsResolvedFromCache.incrementAndGet();
+    requestsCompleted.incrementAndGet();
+  }
+
+  @Override public void onRequestCoalesced(long requestId, long timestampNanos) {
+    requestsCoalesced.incrementAndGet();
+  }
+
+  @Override public void onRequestFailed(long requestId, DexterError error, long timestampNanos) {
+    requestsFailed.incrementAndGet(error.ordinal());
+  }
+
+  @Override public void onRequestCancelled(long requestId, long timestampNanos) {
+    requestsCancelled.incrementAndGet();
+  }
+
+  @Override public void onRequestStarted(long requestId, long timestampNanos) {
+    requestsStarted.incrementAndGet();
+  }
+
+  @Override public void onHostLaunched(long requestId, long timestampNanos) {
+    activityLaunchTimer.start(requestId, timestampNanos);
+  }
+
+  @Override public void onHostReady(long requestId, long timestampNanos) {
+    activityLaunchTimer.end(requestId, timestampNanos);
+  }
+
+  @Override public void onRationaleShown(long requestId, long timestampNanos) {
+    rationaleTimer.start(requestId, timestampNanos);
+  }
+
+  @Override public void onRationaleResolved(long requestId, boolean accepted,
+      long timestampNanos) {
+    rationaleTimer.end(requestId, timestampNanos);
+  }
+
+  @Override public void onSystemDialogShown(long requestId, long timestampNanos) {
+    systemDialogTimer.start(requestId, timestampNanos);
+  }
+
+  @Override public void onSystemDialogDismissed(long requestId, long timestampNanos) {
+    systemDialogTimer.end(requestId, timestampNanos);
+  }
+
+  @Override public void onReportDispatched(long requestId, long timestampNanos) {
+    dispatchTimer.start(requestId, timestampNanos);
+  }
+
+  @Override public void onReportDelivered(long requestId, long timestampNanos) {
+    dispatchTimer.end(requestId, timestampNanos);
+    requestsCompleted.incrementAndGet();
+  }
+
+  /**
+   * Takes a snapshot of the metrics aggregated so far
+   *
+   * @param cacheHits Permission checks answered without querying the Android permission system
+   * @param cacheMisses Permission checks that needed to query the Android permission system
+   * @param permissionServiceQueries Queries sent to the Android permission system
+   */
+  DexterMetrics snapshot(long cacheHits, long cacheMisses, long permissionServiceQueries) {
+    EnumMap<DexterError, Long> failedRequests = new EnumMap<>(DexterError.class);
+    for (DexterError error : ERRORS) {
+      long requests = requestsFailed.get(error.ordinal());
+      if (requests != 0) {
+        failedRequests.put(error, requests);
+      }
+    }
+
+    return new DexterMetrics(requestsChecked.get(), requestsStarted.get(),
+        requestsCompleted.get(), requestsResolvedFromCache.get(), requestsCoalesced.get(),
+        requestsCancelled.get(), failedRequests, cacheHits, cacheMisses, permissionServiceQueries,
+        activityLaunchLatency.snapshot(), userDecisionLatency.snapshot(),
+        dispatchLatency.snapshot());
+  }
+}
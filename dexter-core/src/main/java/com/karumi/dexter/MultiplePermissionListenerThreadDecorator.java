@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.event.DexterEventListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import java.util.List;
+
+/**
+ * Decorator to execute the permission updates on a given thread
+ */
+final class MultiplePermissionListenerThreadDecorator
+    implements StreamingMultiplePermissionsListener {
+
+  private final MultiplePermissionsListener listener;
+  private final Thread thread;
+  private final long requestId;
+  private final DexterEventListener eventListener;
+
+  MultiplePermissionListenerThreadDecorator(MultiplePermissionsListener listener,
+      Thread thread) {
+    this(listener, thread, 0, DexterEvents.NONE);
+  }
+
+  MultiplePermissionListenerThreadDecorator(MultiplePermissionsListener listener,
+      Thread thread, long requestId, DexterEventListener eventListener) {
+    this.thread = thread;
+    this.listener = listener;
+    this.requestId = requestId;
+    this.eventListener = eventListener;
+  }
+
+  /**
+   * Decorates de permission listener execution with a given thread
+   *
+   * @param report In detail report with all the permissions that has been denied and granted
+   */
+  @Override public void onPermissionsChecked(final MultiplePermissionsReport report) {
+    if (eventListener == DexterEvents.NONE) {
+      thread.execute(new Runnable() {
+        @Override public void run() {
+          notifyPermissionsChecked(report);
+        }
+      });
+      return;
+    }
+
+    eventListener.onReportDispatched(requestId, System.nanoTime());
+    thread.execute(new Runnable() {
+      @Override public void run() {
+        notifyPermissionsChecked(report);
+        eventListener.onReportDelivered(requestId, System.nanoTime());
+      }
+    });
+  }
+
+  /**
+   * Decorates de permission listener execution with a given thread. Only listeners implementing
+   * {@link StreamingMultiplePermissionsListener} are notified
+   */
+  @Override public void onPermissionGranted(final PermissionGrantedResponse response) {
+    if (!(listener instanceof StreamingMultiplePermissionsListener)) {
+      return;
+    }
+
+    thread.execute(new Runnable() {
+      @Override public void run() {
+        ((StreamingMultiplePermissionsListener) listener).onPermissionGranted(response);
+      }
+    });
+  }
+
+  /**
+   * Decorates de permission listener execution with a given thread. Only listeners implementing
+   * {@link StreamingMultiplePermissionsListener} are notified
+   */
+  @Override public void onPermissionDenied(final PermissionDeniedResponse response) {
+    if (!(listener instanceof StreamingMultiplePermissionsListener)) {
+      return;
+    }
+
+    thread.execute(new Runnable() {
+      @Override public void run() {
+        ((StreamingMultiplePermissionsListener) listener).onPermissionDenied(response);
+      }
+    });
+  }
+
+  /**
+   * Decorates de permission listener execution with a given thread
+   *
+   * @param permissions The permissions that has been requested. Collections of values found in
+   * {@link android.Manifest.permission}
+   * @param token Token used to continue or cancel the permission request process. The permission
+   * request process will remain blocked until one of the token methods is called
+   */
+  @Override public void onPermissionRationaleShouldBeShown(
+      final List<PermissionRequest> permissions, final PermissionToken token) {
+    thread.execute(new Runnable() {
+      @Override public void run() {
+        Tracer tracer = Tracing.beginSection("Dexter#onPermissionRationaleShouldBeShown");
+        try {
+          listener.onPermissionRationaleShouldBeShown(permissions, token);
+        } finally {
+          Tracing.endSection(tracer);
+        }
+      }
+    });
+  }
+
+  @Override public String toString() {
+    return listener.getClass().getName() + " on " + thread.getClass().getSimpleName();
+  }
+
+  private void notifyPermissionsChecked(MultiplePermissionsReport report) {
+    Tracer tracer = Tracing.beginSection("Dexter#onPermissionsChecked");
+    try {
+      listener.onPermissionsChecked(report);
+    } finally {
+      Tracing.endSection(tracer);
+    }
+  }
+}
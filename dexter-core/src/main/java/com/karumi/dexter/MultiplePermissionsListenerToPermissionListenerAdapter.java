@@ -37,8 +37,8 @@ final class MultiplePermissionsListenerToPermissionListenerAdapter
   }
 
   @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
-    List<PermissionDeniedResponse> deniedResponses = report.getDeniedPermissionResponses();
-    List<PermissionGrantedResponse> grantedResponses = report.getGrantedPermissionResponses();
+    List<PermissionDeniedResponse> deniedResponses = report.getDeniedPermissionResponsesView();
+    List<PermissionGrantedResponse> grantedResponses = report.getGrantedPermissionResponsesView();
 
     if (!deniedResponses.isEmpty()) {
       PermissionDeniedResponse response = deniedResponses.get(0);
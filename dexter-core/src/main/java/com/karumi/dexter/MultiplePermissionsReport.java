@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2015 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An in detail report of the request permission process
+ */
+public final class MultiplePermissionsReport {
+
+  private final List<PermissionGrantedResponse> grantedPermissionResponses = new ArrayList<>();
+  private final List<PermissionDeniedResponse> deniedPermissionResponses = new ArrayList<>();
+  private final List<PermissionGrantedResponse> grantedPermissionResponsesView =
+      Collections.unmodifiableList(grantedPermissionResponses);
+  private final List<PermissionDeniedResponse> deniedPermissionResponsesView =
+      Collections.unmodifiableList(deniedPermissionResponses);
+  private final BitSet grantedPermissions = new BitSet();
+  private final BitSet deniedPermissions = new BitSet();
+  private final BitSet permanentlyDeniedPermissions = new BitSet();
+  private boolean isUnindexedPermissionPermanentlyDenied = false;
+
+  MultiplePermissionsReport() {
+  }
+
+  /**
+   * Returns a collection with all the permissions that has been granted. The collection is a copy
+   * the caller can modify, use {@link #getGrantedPermissionResponsesView()} to avoid copying it
+   */
+  public List<PermissionGrantedResponse> getGrantedPermissionResponses() {
+    return new ArrayList<>(grantedPermissionResponses);
+  }
+
+  /**
+   * Returns a collection with all the permissions that has been denied. The collection is a copy
+   * the caller can modify, use {@link #getDeniedPermissionResponsesView()} to avoid copying it
+   */
+  public List<PermissionDeniedResponse> getDeniedPermissionResponses() {
+    return new ArrayList<>(deniedPermissionResponses);
+  }
+
+  /**
+   * Returns an unmodifiable view of the permissions that has been granted, in the order they were
+   * resolved
+   */
+  public List<PermissionGrantedResponse> getGrantedPermissionResponsesView() {
+    return grantedPermissionResponsesView;
+  }
+
+  /**
+   * Returns an unmodifiable view of the permissions that has been denied, in the order they were
+   * resolved
+   */
+  public List<PermissionDeniedResponse> getDeniedPermissionResponsesView() {
+    return deniedPermissionResponsesView;
+  }
+
+  /**
+   * Returns whether the user has granted all the requested permission
+   */
+  public boolean areAllPermissionsGranted() {
+    return deniedPermissionResponses.isEmpty();
+  }
+
+  /**
+   * Returns whether the user has permanently denied any of the requested permissions
+   */
+  public boolean isAnyPermissionPermanentlyDenied() {
+    return !permanentlyDeniedPermissions.isEmpty() || isUnindexedPermissionPermanentlyDenied;
+  }
+
+  /**
+   * Returns whether the given permission is part of this report and has been granted
+   *
+   * @param permission One of the values found in {@link android.Manifest.permission}
+   */
+  public boolean isPermissionGranted(String permission) {
+    int index = PermissionIndex.find(permission);
+    return index >= 0 ? grantedPermissions.get(index)
+        : indexOfGrantedResponse(permission) >= 0;
+  }
+
+  /**
+   * Returns whether the given permission is part of this report and has been denied
+   *
+   * @param permission One of the values found in {@link android.Manifest.permission}
+   */
+  public boolean isPermissionDenied(String permission) {
+    int index = PermissionIndex.find(permission);
+    return index >= 0 ? deniedPermissions.get(index) : indexOfDeniedResponse(permission) >= 0;
+  }
+
+  /**
+   * Returns whether the given permission is part of this report and has been permanently denied
+   *
+   * @param permission One of the values found in {@link android.Manifest.permission}
+   */
+  public boolean isPermissionPermanentlyDenied(String permission) {
+    int index = PermissionIndex.find(permission);
+    if (index >= 0) {
+      return permanentlyDeniedPermissions.get(index);
+    }
+    int responseIndex = indexOfDeniedResponse(permission);
+    return responseIndex >= 0
+        && deniedPermissionResponses.get(responseIndex).isPermanentlyDenied();
+  }
+
+  boolean addGrantedPermissionResponse(PermissionGrantedResponse response) {
+    int index = PermissionIndex.indexOf(response.getPermissionName());
+    if (index < 0) {
+      if (indexOfGrantedResponse(response.getPermissionName()) >= 0) {
+        return false;
+      }
+    } else if (grantedPermissions.get(index)) {
+      return false;
+    } else {
+      grantedPermissions.set(index);
+    }
+
+    grantedPermissionResponses.add(response);
+    return true;
+  }
+
+  boolean addDeniedPermissionResponse(PermissionDeniedResponse response) {
+    int index = PermissionIndex.indexOf(response.getPermissionName());
+    if (index < 0) {
+      if (indexOfDeniedResponse(response.getPermissionName()) >= 0) {
+        return false;
+      }
+      if (response.isPermanentlyDenied()) {
+        isUnindexedPermissionPermanentlyDenied = true;
+      }
+    } else if (deniedPermissions.get(index)) {
+      return false;
+    } else {
+      deniedPermissions.set(index);
+      if (response.isPermanentlyDenied()) {
+        permanentlyDeniedPermissions.set(index);
+      }
+    }
+
+    deniedPermissionResponses.add(response);
+    return true;
+  }
+
+  /**
+   * Builds a new report containing only the responses for the given permissions
+   */
+  MultiplePermissionsReport filter(Set<String> permissions) {
+    MultiplePermissionsReport report = new MultiplePermissionsReport();
+
+    for (PermissionGrantedResponse grantedResponse : grantedPermissionResponses) {
+      if (permissions.contains(grantedResponse.getPermissionName())) {
+        report.addGrantedPermissionResponse(grantedResponse);
+      }
+    }
+
+    for (PermissionDeniedResponse deniedResponse : deniedPermissionResponses) {
+      if (permissions.contains(deniedResponse.getPermissionName())) {
+        report.addDeniedPermissionResponse(deniedResponse);
+      }
+    }
+
+    return report;
+  }
+
+  /**
+   * Adds every response of the given report to this one
+   */
+  void addAll(MultiplePermissionsReport report) {
+    for (PermissionGrantedResponse grantedResponse : report.grantedPermissionResponses) {
+      addGrantedPermissionResponse(grantedResponse);
+    }
+    for (PermissionDeniedResponse deniedResponse : report.deniedPermissionResponses) {
+      addDeniedPermissionResponse(deniedResponse);
+    }
+  }
+
+  void clear() {
+    grantedPermissionResponses.clear();
+    deniedPermissionResponses.clear();
+    grantedPermissions.clear();
+    deniedPermissions.clear();
+    permanentlyDeniedPermissions.clear();
+    isUnindexedPermissionPermanentlyDenied = false;
+  }
+
+  /*
+   * Slow paths for the permissions left out of the PermissionIndex once it is full
+   */
+  private int indexOfGrantedResponse(String permission) {
+    for (int i = 0; i < grantedPermissionResponses.size(); i++) {
+      if (grantedPermissionResponses.get(i).getPermissionName().equals(permission)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int indexOfDeniedResponse(String permission) {
+    for (int i = 0; i < deniedPermissionResponses.size(); i++) {
+      if (deniedPermissionResponses.get(i).getPermissionName().equals(permission)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
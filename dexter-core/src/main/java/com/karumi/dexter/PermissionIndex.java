@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded process wide registry assigning a small and stable index to every permission name, so
+ * reports can keep the state of their permissions in bitsets. Apps only check the permissions
+ * declared in their manifest, so the registry rarely fills up. Once it does, new permissions get
+ * no index and reports fall back to looking them up in their responses.
+ */
+final class PermissionIndex {
+
+  static final int MAX_PERMISSIONS = 256;
+
+  private static final ConcurrentMap<String, Integer> indexes = new ConcurrentHashMap<>();
+  private static int nextIndex = 0;
+
+  private PermissionIndex() {
+  }
+
+  /**
+   * Returns the index of the permission, assigning a new one the first time it is seen, or -1 if
+   * it has never been seen and the registry is full
+   */
+  static int indexOf(String permission) {
+    Integer index = indexes.get(permission);
+    if (index != null) {
+      return index;
+    }
+
+    synchronized (indexes) {
+      index = indexes.get(permission);
+      if (index != null) {
+        return index;
+      }
+      if (nextIndex >= MAX_PERMISSIONS) {
+        return -1;
+      }
+      index = nextIndex++;
+      indexes.put(permission, index);
+      return index;
+    }
+  }
+
+  /**
+   * Returns the index of the permission or -1 if it has never been seen
+   */
+  static int find(String permission) {
+    Integer index = indexes.get(permission);
+    return index != null ? index : -1;
+  }
+}
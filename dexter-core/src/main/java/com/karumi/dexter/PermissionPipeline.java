@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered sequence of permission requests processed one after another within the same Dexter
+ * session. Every stage but the first one can be conditioned to the result of the previous ones.
+ */
+public final class PermissionPipeline {
+
+  private static final StageCondition ALWAYS = new StageCondition() {
+    @Override public boolean shouldRun(MultiplePermissionsReport report) {
+      return true;
+    }
+  };
+
+  private static final StageCondition IF_ALL_GRANTED = new StageCondition() {
+    @Override public boolean shouldRun(MultiplePermissionsReport report) {
+      return report.areAllPermissionsGranted();
+    }
+  };
+
+  private final List<Stage> stages;
+
+  private PermissionPipeline(List<Stage> stages) {
+    this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+  }
+
+  List<Stage> getStages() {
+    return stages;
+  }
+
+  /**
+   * Decides whether a stage has to be requested
+   */
+  public interface StageCondition {
+
+    /**
+     * @param report Aggregated report with the permissions of every stage processed so far
+     * @return true if the stage has to be requested, false to skip it
+     */
+    boolean shouldRun(MultiplePermissionsReport report);
+  }
+
+  static final class Stage {
+    private final Collection<String> permissions;
+    private final StageCondition condition;
+
+    private Stage(Collection<String> permissions, StageCondition condition) {
+      this.permissions = permissions;
+      this.condition = condition;
+    }
+
+    Collection<String> getPermissions() {
+      return permissions;
+    }
+
+    boolean shouldRun(MultiplePermissionsReport report) {
+      return condition.shouldRun(report);
+    }
+  }
+
+  public static class Builder {
+    private final List<Stage> stages = new ArrayList<>();
+
+    private Builder(Collection<String> permissions) {
+      stages.add(new Stage(permissions, ALWAYS));
+    }
+
+    /**
+     * Starts a pipeline whose first stage requests the given permissions
+     */
+    public static Builder withPermissions(String... permissions) {
+      return new Builder(Arrays.asList(permissions));
+    }
+
+    /**
+     * Adds a stage requested no matter the result of the previous ones
+     */
+    public Builder thenRequest(String... permissions) {
+      return thenRequestIf(ALWAYS, permissions);
+    }
+
+    /**
+     * Adds a stage requested only if every permission of the previous stages has been granted
+     */
+    public Builder thenRequestIfAllGranted(String... permissions) {
+      return thenRequestIf(IF_ALL_GRANTED, permissions);
+    }
+
+    /**
+     * Adds a stage requested only if the condition is met once the previous stages finish
+     */
+    public Builder thenRequestIf(StageCondition condition, String... permissions) {
+      stages.add(new Stage(Arrays.asList(permissions), condition));
+      return this;
+    }
+
+    public PermissionPipeline build() {
+      return new PermissionPipeline(stages);
+    }
+  }
+}
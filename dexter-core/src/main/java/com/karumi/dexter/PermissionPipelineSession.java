@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.event.DexterEventListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Runs the stages of a {@link PermissionPipeline} creating the request of the next stage as soon
+ * as the previous one finishes, so it is started before any other queued request and reuses the
+ * same host
+ */
+final class PermissionPipelineSession implements DexterRequest.Continuation {
+
+  private final List<PermissionPipeline.Stage> stages;
+  private final PermissionPipelineListener listener;
+  private final Thread thread;
+  private final PermissionRequestErrorListener errorListener;
+  private final RequestBackend backend;
+  private final DexterEventListener eventListener;
+  private final MultiplePermissionsReport aggregatedReport = new MultiplePermissionsReport();
+  private int currentStage = 0;
+  private volatile boolean isFinished = false;
+  private volatile boolean isCancelled = false;
+  private volatile DexterRequest currentRequest;
+
+  PermissionPipelineSession(PermissionPipeline pipeline, PermissionPipelineListener listener,
+      Thread thread, PermissionRequestErrorListener errorListener, RequestBackend backend) {
+    this(pipeline, listener, thread, errorListener, backend, DexterEvents.NONE);
+  }
+
+  PermissionPipelineSession(PermissionPipeline pipeline, PermissionPipelineListener listener,
+      Thread thread, PermissionRequestErrorListener errorListener, RequestBackend backend,
+      DexterEventListener eventListener) {
+    this.stages = pipeline.getStages();
+    this.listener = listener;
+    this.thread = thread;
+    this.errorListener = errorListener;
+    this.backend = backend;
+    this.eventListener = eventListener;
+  }
+
+  DexterRequest firstRequest() {
+    return createRequest(0);
+  }
+
+  /**
+   * Prevents the next stages from being started
+   *
+   * @return the request of the ongoing stage
+   */
+  DexterRequest cancel() {
+    isCancelled = true;
+    return currentRequest;
+  }
+
+  @Override public DexterRequest next(MultiplePermissionsReport report) {
+    if (isCancelled) {
+      return null;
+    }
+
+    PermissionPipeline.Stage finishedStage = stages.get(currentStage);
+    aggregatedReport.addAll(report.filter(new HashSet<>(finishedStage.getPermissions())));
+
+    for (int stage = currentStage + 1; stage < stages.size(); stage++) {
+      if (stages.get(stage).shouldRun(aggregatedReport)) {
+        currentStage = stage;
+        return createRequest(stage);
+      }
+    }
+
+    isFinished = true;
+    return null;
+  }
+
+  private DexterRequest createRequest(int stage) {
+    MultiplePermissionsListener stageListener = new StageListener(stage);
+    long requestId = DexterRequest.nextId();
+    currentRequest = new DexterRequest(
+        new MultiplePermissionListenerThreadDecorator(stageListener, thread, requestId,
+            eventListener), stages.get(stage).getPermissions(), thread, errorListener, backend,
+        this, requestId, eventListener);
+    return currentRequest;
+  }
+
+  private final class StageListener implements MultiplePermissionsListener {
+    private final int stage;
+
+    private StageListener(int stage) {
+      this.stage = stage;
+    }
+
+    @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
+      if (isCancelled) {
+        return;
+      }
+
+      listener.onStageChecked(stage, report);
+      if (isFinished && stage == currentStage) {
+        listener.onPipelineChecked(aggregatedReport);
+      }
+    }
+
+    @Override public void onPermissionRationaleShouldBeShown(List<PermissionRequest> permissions,
+        PermissionToken token) {
+      listener.onPermissionRationaleShouldBeShown(permissions, token);
+    }
+  }
+}
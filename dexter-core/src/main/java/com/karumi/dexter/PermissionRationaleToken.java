@@ -16,26 +16,26 @@
 
 package com.karumi.dexter;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 final class PermissionRationaleToken implements PermissionToken {
 
-  private final DexterInstance dexterInstance;
-  private boolean isTokenResolved = false;
+  private final DexterStateMachine stateMachine;
+  private final AtomicBoolean isTokenResolved = new AtomicBoolean();
 
-  PermissionRationaleToken(DexterInstance dexterInstance) {
-    this.dexterInstance = dexterInstance;
+  PermissionRationaleToken(DexterStateMachine stateMachine) {
+    this.stateMachine = stateMachine;
   }
 
   @Override public void continuePermissionRequest() {
-    if (!isTokenResolved) {
-      dexterInstance.onContinuePermissionRequest();
-      isTokenResolved = true;
+    if (isTokenResolved.compareAndSet(false, true)) {
+      stateMachine.onContinuePermissionRequest();
     }
   }
 
   @Override public void cancelPermissionRequest() {
-    if (!isTokenResolved) {
-      dexterInstance.onCancelPermissionRequest();
-      isTokenResolved = true;
+    if (isTokenResolved.compareAndSet(false, true)) {
+      stateMachine.onCancelPermissionRequest();
     }
   }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+/**
+ * Component able to show the system permission dialog on behalf of a {@link DexterStateMachine}.
+ * The result of every request has to be reported through
+ * {@link DexterStateMachine#onPermissionsRequested}
+ */
+interface PermissionRequestHost {
+
+  void requestPermissions(String[] permissions, int requestCode);
+
+  boolean shouldShowRequestPermissionRationale(String permission);
+
+  boolean isPermissionPermanentlyDenied(String permission);
+
+  /**
+   * Returns whether the host is being released and can not be used for new requests
+   */
+  boolean isFinishing();
+
+  /**
+   * Releases the host once there are no more requests to process
+   */
+  void finish();
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.Collection;
+
+/**
+ * Source of the state of the permissions checked by a {@link DexterStateMachine}, backed by the
+ * permission system of the platform. Implementations must not throw when a state can not be
+ * resolved, reporting the permission as denied instead
+ */
+interface PermissionService extends GrantedRequestFastPath.GrantedPermissions {
+
+  int PERMISSION_GRANTED = 0;
+  int PERMISSION_DENIED = -1;
+  int PERMISSION_DENIED_APP_OP = -2;
+
+  /**
+   * Returns whether permissions can still be checked and requested, false once the context Dexter
+   * was called with is gone
+   */
+  boolean isAvailable();
+
+  /**
+   * Resolves the state of each permission into the given array, following the order of the
+   * permissions array
+   */
+  void checkSelfPermissions(String[] permissions, int[] permissionStates);
+
+  /**
+   * Method called with the permissions the user has just granted
+   */
+  void onPermissionsGranted(Collection<String> permissions);
+
+  /**
+   * Method called with the permissions the user has just denied
+   */
+  void onPermissionsDenied(Collection<String> permissions);
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers when a phase of a request started so its latency can be recorded once it ends.
+ *
+ * Requests are kept in a fixed number of slots picked by their id, which are assigned one after
+ * another, so a slot is only reused once many newer requests have started the same phase. A
+ * phase whose slot has been reused is not recorded.
+ */
+final class PhaseTimer {
+
+  private static final int SLOTS = 64;
+
+  private final AtomicLongArray requestIds = new AtomicLongArray(SLOTS);
+  private final AtomicLongArray startTimes = new AtomicLongArray(SLOTS);
+  private final FixedBucketHistogram histogram;
+
+  PhaseTimer(FixedBucketHistogram histogram) {
+    this.histogram = histogram;
+  }
+
+  void start(long requestId, long timestampNanos) {
+    int slot = slotOf(requestId);
+    startTimes.set(slot, timestampNanos);
+    requestIds.set(slot, requestId);
+  }
+
+  void end(long requestId, long timestampNanos) {
+    int slot = slotOf(requestId);
+    long startTime = startTimes.get(slot);
+    if (requestIds.compareAndSet(slot, requestId, 0)) {
+      histogram.record(timestampNanos - startTime);
+    }
+  }
+
+  private static int slotOf(long requestId) {
+    return (int) (requestId & (SLOTS - 1));
+  }
+}
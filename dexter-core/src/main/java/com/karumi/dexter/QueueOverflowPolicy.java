@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+
+/**
+ * Strategy applied when a permission request is checked while another one is ongoing and the
+ * queue of pending requests is already full
+ */
+public enum QueueOverflowPolicy {
+  /**
+   * The new request is rejected by throwing a {@link DexterException} with
+   * {@link DexterError#REQUEST_ONGOING}, which the Dexter builder catches to notify the error
+   * listener of the request
+   */
+  REJECT_NEW_REQUEST,
+
+  /**
+   * The oldest queued request is discarded to make room for the new one. The error listener of
+   * the discarded request is notified with {@link DexterError#REQUEST_ONGOING}
+   */
+  DISCARD_OLDEST_REQUEST
+}
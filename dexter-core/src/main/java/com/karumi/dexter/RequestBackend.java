@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+/**
+ * Component used to show the system permission dialog when some of the requested permissions
+ * have not been granted yet. Backends that can not be used with the context passed to Dexter fall
+ * back to {@link #TRANSPARENT_ACTIVITY}.
+ */
+public enum RequestBackend {
+  /**
+   * Uses {@link #RETAINED_FRAGMENT} when Dexter is called with a
+   * {@link androidx.fragment.app.FragmentActivity} and {@link #TRANSPARENT_ACTIVITY} otherwise
+   */
+  AUTOMATIC,
+
+  /**
+   * Starts an internal transparent activity. It works with any context, including application
+   * contexts and services, at the cost of an activity start and a window transition
+   */
+  TRANSPARENT_ACTIVITY,
+
+  /**
+   * Adds a headless retained fragment to the {@link androidx.fragment.app.FragmentActivity}
+   * Dexter is called with
+   */
+  RETAINED_FRAGMENT,
+
+  /**
+   * Registers a permission request in the {@link androidx.activity.result.ActivityResultRegistry}
+   * of the {@link androidx.activity.ComponentActivity} Dexter is called with
+   */
+  ACTIVITY_RESULT_REGISTRY
+}
@@ -22,5 +22,8 @@ package com.karumi.dexter;
 interface Thread {
   void execute(Runnable runnable);
 
-  void loop();
+  /**
+   * Returns whether the caller is already running on this thread
+   */
+  boolean isCurrentThread();
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+/**
+ * Process wide switch for the trace sections emitted by Dexter. While tracing is disabled every
+ * method returns right after reading a single field.
+ */
+final class Tracing {
+
+  private static volatile Tracer tracer;
+
+  private Tracing() {
+  }
+
+  /**
+   * Sets the tracer sections are emitted to, or null to disable tracing
+   */
+  static void setTracer(Tracer tracer) {
+    Tracing.tracer = tracer;
+  }
+
+  static boolean isEnabled() {
+    return tracer != null;
+  }
+
+  /**
+   * Begins a section on the current thread
+   *
+   * @return the tracer the section has to be ended with by {@link #endSection(Tracer)}, or null
+   * if tracing is disabled
+   */
+  static Tracer beginSection(String name) {
+    Tracer currentTracer = tracer;
+    if (currentTracer != null) {
+      currentTracer.beginSection(name);
+    }
+    return currentTracer;
+  }
+
+  /**
+   * Ends the section begun with the given tracer, so sections stay balanced even if tracing is
+   * disabled in the meantime
+   */
+  static void endSection(Tracer tracer) {
+    if (tracer != null) {
+      tracer.endSection();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import com.karumi.dexter.listener.event.BaseDexterEventListener;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits an async trace slice for every request, from the moment it is checked until it finishes
+ * whatever the outcome, and for its slow phases, using the id of the request as cookie so
+ * overlapping requests can be told apart
+ */
+final class TracingEventListener extends BaseDexterEventListener {
+
+  static final String REQUEST_SECTION = "Dexter request";
+  static final String HOST_LAUNCH_SECTION = "Dexter host launch";
+  static final String RATIONALE_SECTION = "Dexter rationale";
+  static final String SYSTEM_DIALOG_SECTION = "Dexter permission dialog";
+  static final String DISPATCH_SECTION = "Dexter report dispatch";
+
+  private final Tracer tracer;
+  private final Set<Long> openRequests =
+      Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
+  TracingEventListener(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override public void onRequestChecked(long requestId, Collection<String> permissions,
+      long timestampNanos) {
+    beginRequestSection(requestId);
+  }
+
+  /*
+   * The stages of a pipeline following the first one are started without being checked
+   */
+  @Override public void onRequestStarted(long requestId, long timestampNanos) {
+    beginRequestSection(requestId);
+  }
+
+  @Override public void onRequestResolvedFromCache(long requestId, long timestampNanos) {
+    endRequestSection(requestId);
+  }
+
+  @Override public void onRequestFailed(long requestId, DexterError error, long timestampNanos) {
+    endRequestSection(requestId);
+  }
+
+  @Override public void onRequestCancelled(long requestId, long timestampNanos) {
+    endRequestSection(requestId);
+  }
+
+  @Override public void onHostLaunched(long requestId, long timestampNanos) {
+    tracer.beginAsyncSection(HOST_LAUNCH_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onHostReady(long requestId, long timestampNanos) {
+    tracer.endAsyncSection(HOST_LAUNCH_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onRationaleShown(long requestId, long timestampNanos) {
+    tracer.beginAsyncSection(RATIONALE_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onRationaleResolved(long requestId, boolean accepted,
+      long timestampNanos) {
+    tracer.endAsyncSection(RATIONALE_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onSystemDialogShown(long requestId, long timestampNanos) {
+    tracer.beginAsyncSection(SYSTEM_DIALOG_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onSystemDialogDismissed(long requestId, long timestampNanos) {
+    tracer.endAsyncSection(SYSTEM_DIALOG_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onReportDispatched(long requestId, long timestampNanos) {
+    tracer.beginAsyncSection(DISPATCH_SECTION, cookieOf(requestId));
+  }
+
+  @Override public void onReportDelivered(long requestId, long timestampNanos) {
+    tracer.endAsyncSection(DISPATCH_SECTION, cookieOf(requestId));
+    endRequestSection(requestId);
+  }
+
+  private void beginRequestSection(long requestId) {
+    if (openRequests.add(requestId)) {
+      tracer.beginAsyncSection(REQUEST_SECTION, cookieOf(requestId));
+    }
+  }
+
+  private void endRequestSection(long requestId) {
+    if (openRequests.remove(requestId)) {
+      tracer.endAsyncSection(REQUEST_SECTION, cookieOf(requestId));
+    }
+  }
+
+  private static int cookieOf(long requestId) {
+    return (int) requestId;
+  }
+}
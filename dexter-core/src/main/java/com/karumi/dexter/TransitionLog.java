@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Ring buffer with the last state transitions of a {@link DexterStateMachine}, used to find out
+ * how it ended up in its current state. Entries are stored in preallocated arrays, so adding one
+ * does not allocate.
+ */
+final class TransitionLog {
+
+  private final long[] timestamps;
+  private final String[] transitions;
+  private final long[] requestIds;
+  private int nextIndex = 0;
+  private int size = 0;
+
+  TransitionLog(int capacity) {
+    timestamps = new long[capacity];
+    transitions = new String[capacity];
+    requestIds = new long[capacity];
+  }
+
+  /**
+   * Records a transition, replacing the oldest one if the log is full
+   *
+   * @param transition Constant describing the transition
+   * @param requestId Id of the request the transition belongs to, or zero if none
+   */
+  synchronized void add(String transition, long requestId) {
+    timestamps[nextIndex] = System.currentTimeMillis();
+    transitions[nextIndex] = transition;
+    requestIds[nextIndex] = requestId;
+    nextIndex = (nextIndex + 1) % transitions.length;
+    size = Math.min(size + 1, transitions.length);
+  }
+
+  /**
+   * Prints the recorded transitions, oldest first
+   */
+  void dump(PrintWriter writer, String prefix) {
+    long[] timestamps;
+    String[] transitions;
+    long[] requestIds;
+    synchronized (this) {
+      timestamps = new long[size];
+      transitions = new String[size];
+      requestIds = new long[size];
+      int firstIndex = (nextIndex - size + this.transitions.length) % this.transitions.length;
+      for (int i = 0; i < size; i++) {
+        int index = (firstIndex + i) % this.transitions.length;
+        timestamps[i] = this.timestamps[index];
+        transitions[i] = this.transitions[index];
+        requestIds[i] = this.requestIds[index];
+      }
+    }
+
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+    for (int i = 0; i < transitions.length; i++) {
+      writer.print(prefix);
+      writer.print(dateFormat.format(new Date(timestamps[i])));
+      writer.print(' ');
+      writer.print(transitions[i]);
+      if (requestIds[i] != 0) {
+        writer.print(" #");
+        writer.print(requestIds[i]);
+      }
+      writer.println();
+    }
+  }
+}
@@ -26,5 +26,21 @@ public enum DexterError {
   /**
    * Error code used when Dexter is called with no permissions.
    */
-  NO_PERMISSIONS_REQUESTED
+  NO_PERMISSIONS_REQUESTED,
+
+  /**
+   * Error code used when a blocking check is called from the main thread.
+   */
+  BLOCKING_CHECK_ON_MAIN_THREAD,
+
+  /**
+   * Error code used when a blocking check is called from the shared thread Dexter notifies
+   * listeners on, which would have to deliver the result it is waiting for.
+   */
+  BLOCKING_CHECK_ON_CALLBACK_THREAD,
+
+  /**
+   * Error code used when a blocking check does not finish before its timeout.
+   */
+  REQUEST_TIMED_OUT
 }
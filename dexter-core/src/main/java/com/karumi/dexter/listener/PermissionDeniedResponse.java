@@ -34,12 +34,13 @@ public final class PermissionDeniedResponse {
   }
 
   /**
-   * Builds a new instance of PermissionDeniedResponse from a given permission string
-   * and a permanently-denied boolean flag
+   * Returns the instance of PermissionDeniedResponse for a given permission string and a
+   * permanently-denied boolean flag. Responses are immutable, so the same instance is returned
+   * every time for the same arguments
    */
   public static PermissionDeniedResponse from(@NonNull String permission,
       boolean permanentlyDenied) {
-    return new PermissionDeniedResponse(new PermissionRequest(permission), permanentlyDenied);
+    return PermissionResponseRegistry.getDeniedResponse(permission, permanentlyDenied);
   }
 
   public PermissionRequest getRequestedPermission() {
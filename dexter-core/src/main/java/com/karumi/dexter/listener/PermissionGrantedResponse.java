@@ -31,10 +31,11 @@ public final class PermissionGrantedResponse {
   }
 
   /**
-   * Builds a new instance of PermissionGrantedResponse from a given permission string
+   * Returns the instance of PermissionGrantedResponse for a given permission string. Responses
+   * are immutable, so the same instance is returned every time for the same permission
    */
   public static PermissionGrantedResponse from(@NonNull String permission) {
-    return new PermissionGrantedResponse(new PermissionRequest(permission));
+    return PermissionResponseRegistry.getGrantedResponse(permission);
   }
 
   public PermissionRequest getRequestedPermission() {
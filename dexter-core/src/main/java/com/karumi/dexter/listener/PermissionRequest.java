@@ -29,6 +29,14 @@ public final class PermissionRequest {
     this.name = name;
   }
 
+  /**
+   * Returns the instance of PermissionRequest for a given permission string. Requests are
+   * immutable, so the same instance is returned every time for the same permission
+   */
+  public static PermissionRequest from(@NonNull String name) {
+    return PermissionResponseRegistry.getRequest(name);
+  }
+
   /**
    * One of the values found in {@link android.Manifest.permission}
    */
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.listener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded registry of the canonical request and responses of every permission. Requests and
+ * responses are immutable, so the same instances are shared instead of allocating new ones every
+ * time a permission is resolved. All of them reuse the permission name instance the permission
+ * was first registered with. Once the registry is full new permissions get new instances.
+ */
+final class PermissionResponseRegistry {
+
+  static final int MAX_PERMISSIONS = 256;
+
+  private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private PermissionResponseRegistry() {
+  }
+
+  static PermissionRequest getRequest(String permission) {
+    Entry entry = getEntry(permission);
+    return entry != null ? entry.request : new PermissionRequest(permission);
+  }
+
+  static PermissionGrantedResponse getGrantedResponse(String permission) {
+    Entry entry = getEntry(permission);
+    return entry != null ? entry.grantedResponse
+        : new PermissionGrantedResponse(new PermissionRequest(permission));
+  }
+
+  static PermissionDeniedResponse getDeniedResponse(String permission,
+      boolean permanentlyDenied) {
+    Entry entry = getEntry(permission);
+    if (entry == null) {
+      return new PermissionDeniedResponse(new PermissionRequest(permission), permanentlyDenied);
+    }
+    return permanentlyDenied ? entry.permanentlyDeniedResponse : entry.deniedResponse;
+  }
+
+  /**
+   * Returns the entry of the permission registering it if there is still room for it, or null
+   * if the registry is full
+   */
+  private static Entry getEntry(String permission) {
+    Entry entry = entries.get(permission);
+    if (entry != null || entries.size() >= MAX_PERMISSIONS) {
+      return entry;
+    }
+
+    Entry newEntry = new Entry(permission);
+    entry = entries.putIfAbsent(permission, newEntry);
+    return entry != null ? entry : newEntry;
+  }
+
+  private static final class Entry {
+    private final PermissionRequest request;
+    private final PermissionGrantedResponse grantedResponse;
+    private final PermissionDeniedResponse deniedResponse;
+    private final PermissionDeniedResponse permanentlyDeniedResponse;
+
+    private Entry(String permission) {
+      request = new PermissionRequest(permission);
+      grantedResponse = new PermissionGrantedResponse(request);
+      deniedResponse = new PermissionDeniedResponse(request, false);
+      permanentlyDeniedResponse = new PermissionDeniedResponse(request, true);
+    }
+  }
+}
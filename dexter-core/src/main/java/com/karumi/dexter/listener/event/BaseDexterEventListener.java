@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter.listener.event;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.Collection;
+
+/**
+ * Base implementation of {@link DexterEventListener} to allow extensions to implement only the
+ * required methods
+ */
+public class BaseDexterEventListener implements DexterEventListener {
+
+  @Override public void onRequestChecked(long requestId, Collection<String> permissions,
+      long timestampNanos) {
+
+  }
+
+  @Override public void onRequestResolvedFromCache(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onRequestCoalesced(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onRequestFailed(long requestId, DexterError error, long timestampNanos) {
+
+  }
+
+  @Override public void onRequestCancelled(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onRequestStarted(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onPermissionStatesChecked(long requestId, boolean allGranted,
+      long timestampNanos) {
+
+  }
+
+  @Override public void onHostLaunched(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onHostReady(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onRationaleShown(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onRationaleResolved(long requestId, boolean accepted, long timestampNanos) {
+
+  }
+
+  @Override public void onSystemDialogShown(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onSystemDialogDismissed(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onReportDispatched(long requestId, long timestampNanos) {
+
+  }
+
+  @Override public void onReportDelivered(long requestId, long timestampNanos) {
+
+  }
+}
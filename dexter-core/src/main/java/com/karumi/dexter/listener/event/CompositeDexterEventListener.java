@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter.listener.event;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Listener that composes multiple event listeners into one
+ * All inner listeners will be called for a given event unless one of them throws an exception or
+ * is blocked
+ */
+public class CompositeDexterEventListener implements DexterEventListener {
+
+  private final Collection<DexterEventListener> listeners;
+
+  /**
+   * Creates a {@link CompositeDexterEventListener} containing all the provided listeners.
+   * This constructor does not guaranty any calling order on inner listeners.
+   */
+  public CompositeDexterEventListener(DexterEventListener... listeners) {
+    this(Arrays.asList(listeners));
+  }
+
+  /**
+   * Creates a {@link CompositeDexterEventListener} containing all the provided listeners.
+   * This constructor will guaranty that inner listeners are called following the iterator order
+   * of the collection.
+   */
+  public CompositeDexterEventListener(Collection<DexterEventListener> listeners) {
+    this.listeners = listeners;
+  }
+
+  @Override public void onRequestChecked(long requestId, Collection<String> permissions,
+      long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRequestChecked(requestId, permissions, timestampNanos);
+    }
+  }
+
+  @Override public void onRequestResolvedFromCache(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRequestResolvedFromCache(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onRequestCoalesced(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRequestCoalesced(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onRequestFailed(long requestId, DexterError error, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRequestFailed(requestId, error, timestampNanos);
+    }
+  }
+
+  @Override public void onRequestCancelled(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRequestCancelled(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onRequestStarted(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRequestStarted(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onPermissionStatesChecked(long requestId, boolean allGranted,
+      long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onPermissionStatesChecked(requestId, allGranted, timestampNanos);
+    }
+  }
+
+  @Override public void onHostLaunched(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onHostLaunched(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onHostReady(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onHostReady(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onRationaleShown(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRationaleShown(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onRationaleResolved(long requestId, boolean accepted, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onRationaleResolved(requestId, accepted, timestampNanos);
+    }
+  }
+
+  @Override public void onSystemDialogShown(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onSystemDialogShown(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onSystemDialogDismissed(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onSystemDialogDismissed(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onReportDispatched(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onReportDispatched(requestId, timestampNanos);
+    }
+  }
+
+  @Override public void onReportDelivered(long requestId, long timestampNanos) {
+    for (DexterEventListener listener : listeners) {
+      listener.onReportDelivered(requestId, timestampNanos);
+    }
+  }
+}
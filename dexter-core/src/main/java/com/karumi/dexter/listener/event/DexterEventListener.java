@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter.listener.event;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.Collection;
+
+/**
+ * Listener notified every time a permission request moves from one phase to the next one, useful
+ * to measure where the time of a request is spent.
+ *
+ * Every method receives the id of the request, unique for the life of the process, and the time
+ * the phase boundary was reached as returned by {@link System#nanoTime()}. Methods are called on
+ * the thread the phase ends on, so implementations must be thread safe and return quickly.
+ */
+public interface DexterEventListener {
+
+  /**
+   * Method called when a request is checked, before it is started, queued or coalesced
+   */
+  void onRequestChecked(long requestId, Collection<String> permissions, long timestampNanos);
+
+  /**
+   * Method called when every permission of the request was known to be granted and its listener
+   * has been notified without starting it
+   */
+  void onRequestResolvedFromCache(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the request has been coalesced into another one asking for the same
+   * permissions, so it shares its phases from now on
+   */
+  void onRequestCoalesced(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the request fails without being notified to its listener
+   */
+  void onRequestFailed(long requestId, DexterError error, long timestampNanos);
+
+  /**
+   * Method called when the request is cancelled before finishing
+   */
+  void onRequestCancelled(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the request leaves the queue and starts being processed
+   */
+  void onRequestStarted(long requestId, long timestampNanos);
+
+  /**
+   * Method called once the current state of the requested permissions is known
+   *
+   * @param allGranted Whether every permission was already granted, so no UI is needed
+   */
+  void onPermissionStatesChecked(long requestId, boolean allGranted, long timestampNanos);
+
+  /**
+   * Method called when the component used to request permissions, an activity or a fragment
+   * depending on the request backend, is launched
+   */
+  void onHostLaunched(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the component used to request permissions is ready to be used
+   */
+  void onHostReady(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the listener of the request is asked to show a rationale
+   */
+  void onRationaleShown(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the token passed along the rationale is resolved
+   *
+   * @param accepted Whether the permission request was continued or cancelled
+   */
+  void onRationaleResolved(long requestId, boolean accepted, long timestampNanos);
+
+  /**
+   * Method called when the system permission dialog is shown
+   */
+  void onSystemDialogShown(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the result of the system permission dialog is received
+   */
+  void onSystemDialogDismissed(long requestId, long timestampNanos);
+
+  /**
+   * Method called when the report of the request is handed to the thread its listener is notified
+   * on
+   */
+  void onReportDispatched(long requestId, long timestampNanos);
+
+  /**
+   * Method called on the thread the listener of the request is notified on, right after the
+   * listener has received the report
+   */
+  void onReportDelivered(long requestId, long timestampNanos);
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.listener.multi;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+
+/**
+ * Base implementation of {@link StreamingMultiplePermissionsListener} to allow extensions to
+ * implement only the required methods
+ */
+public class BaseStreamingMultiplePermissionsListener extends BaseMultiplePermissionsListener
+    implements StreamingMultiplePermissionsListener {
+
+  @Override public void onPermissionGranted(PermissionGrantedResponse response) {
+
+  }
+
+  @Override public void onPermissionDenied(PermissionDeniedResponse response) {
+
+  }
+}
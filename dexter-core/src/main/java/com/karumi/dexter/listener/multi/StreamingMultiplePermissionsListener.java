@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.listener.multi;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+
+/**
+ * Interface that listens to the state of each permission of a request as soon as it is resolved.
+ * {@link #onPermissionsChecked(com.karumi.dexter.MultiplePermissionsReport)} is still called once
+ * every permission has been resolved
+ */
+public interface StreamingMultiplePermissionsListener extends MultiplePermissionsListener {
+
+  /**
+   * Method called as soon as one of the requested permissions is known to be granted, even if
+   * the user has not answered the dialog for the rest of permissions yet
+   */
+  void onPermissionGranted(PermissionGrantedResponse response);
+
+  /**
+   * Method called as soon as one of the requested permissions is known to be denied, even if the
+   * user has not answered the dialog for the rest of permissions yet
+   */
+  void onPermissionDenied(PermissionDeniedResponse response);
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CallbackExecutorTest {
+
+  private static final int ANY_NUMBER_OF_REQUESTS = 5000;
+  private static final String CALLBACK_THREAD_PREFIX = "Dexter-callback-";
+
+  @Test public void onThousandsOfCallbacksThenThreadCountStaysFlat()
+      throws InterruptedException {
+    final CountDownLatch deliveredCallbacks = new CountDownLatch(ANY_NUMBER_OF_REQUESTS);
+    final Thread thread = new ExecutorThread(CallbackExecutor.get());
+
+    for (int i = 0; i < ANY_NUMBER_OF_REQUESTS; i++) {
+      thread.execute(new Runnable() {
+        @Override public void run() {
+          deliveredCallbacks.countDown();
+        }
+      });
+    }
+
+    assertTrue(deliveredCallbacks.await(10, TimeUnit.SECONDS));
+    assertTrue(countCallbackThreads() <= 1);
+  }
+
+  @Test public void onCallbackExecutedThenItRunsOnTheCallbackThread()
+      throws InterruptedException {
+    final CountDownLatch executedCallback = new CountDownLatch(1);
+    final boolean[] isCallbackThread = new boolean[1];
+
+    CallbackExecutor.get().execute(new Runnable() {
+      @Override public void run() {
+        isCallbackThread[0] = CallbackExecutor.isCurrentThread();
+        executedCallback.countDown();
+      }
+    });
+
+    assertTrue(executedCallback.await(10, TimeUnit.SECONDS));
+    assertTrue(isCallbackThread[0]);
+    assertFalse(CallbackExecutor.isCurrentThread());
+  }
+
+  private static int countCallbackThreads() {
+    int callbackThreads = 0;
+    for (java.lang.Thread thread : java.lang.Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().startsWith(CALLBACK_THREAD_PREFIX)) {
+        callbackThreads++;
+      }
+    }
+    return callbackThreads;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DexterFutureTest {
+
+  private static final String ANY_RESULT = "result";
+
+  private DexterFuture<String> future;
+
+  @Before public void setUp() {
+    future = new DexterFuture<>();
+  }
+
+  @Test public void onCompletedThenResultIsReturned() throws Exception {
+    future.complete(ANY_RESULT);
+
+    assertEquals(ANY_RESULT, future.get());
+  }
+
+  @Test(expected = TimeoutException.class) public void onNotCompletedThenGetTimesOut()
+      throws Exception {
+    future.get(1, TimeUnit.MILLISECONDS);
+  }
+
+  @Test public void onCancelledThenCancellationIsExecuted() {
+    SpyCancellation cancellation = new SpyCancellation();
+    future.setCancellation(cancellation);
+
+    future.cancel(false);
+
+    assertTrue(cancellation.executed);
+    assertTrue(future.isCancelled());
+  }
+
+  @Test public void onMappedFutureCancelledThenSourceFutureIsCancelled() {
+    DexterFuture<Integer> mappedFuture = future.map(new LengthFunction());
+
+    mappedFuture.cancel(false);
+
+    assertTrue(future.isCancelled());
+  }
+
+  @Test public void onSourceFutureCompletedThenMappedFutureIsCompleted() throws Exception {
+    DexterFuture<Integer> mappedFuture = future.map(new LengthFunction());
+
+    future.complete(ANY_RESULT);
+
+    assertEquals(ANY_RESULT.length(), (int) mappedFuture.get());
+  }
+
+  @Test(expected = CancellationException.class)
+  public void onSourceFutureCancelledThenMappedFutureIsCancelled() throws Exception {
+    DexterFuture<Integer> mappedFuture = future.map(new LengthFunction());
+
+    future.cancel(false);
+
+    mappedFuture.get();
+  }
+
+  @Test(expected = ExecutionException.class) public void onFailedThenGetThrowsTheFailure()
+      throws Exception {
+    future.fail(new IllegalStateException());
+
+    future.get();
+  }
+
+  private static class LengthFunction implements DexterFuture.Function<String, Integer> {
+    @Override public Integer apply(String input) {
+      return input.length();
+    }
+  }
+
+  private static class SpyCancellation implements Runnable {
+
+    public boolean executed;
+
+    @Override public void run() {
+      executed = true;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class) public class DexterStateMachineTest {
+
+  private static final String ANY_PERMISSION = "noissimrep yna";
+  private static final String OTHER_PERMISSION = "noissimrep rehto";
+  private static final Thread THREAD = new TestThread();
+
+  @Mock HostLauncher hostLauncher;
+  @Mock HostReleaseScheduler hostReleaseScheduler;
+  @Mock PermissionRequestHost host;
+  @Mock MultiplePermissionsListener listener;
+  @Mock MultiplePermissionsListener otherListener;
+  @Mock PermissionRequestErrorListener errorListener;
+
+  private FakePermissionService permissionService;
+  private DexterStateMachine stateMachine;
+
+  @Before public void setUp() {
+    permissionService = new FakePermissionService();
+    stateMachine =
+        new DexterStateMachine(permissionService, hostLauncher, hostReleaseScheduler, THREAD);
+  }
+
+  @Test public void onEveryPermissionGrantedThenListenerIsNotifiedWithoutLaunchingAHost() {
+    permissionService.grant(ANY_PERMISSION);
+
+    whenCheckPermission(listener, ANY_PERMISSION);
+
+    verify(listener).onPermissionsChecked(argThat(getReportMatcher(1, 0)));
+    verify(hostLauncher, never()).launch(any(RequestBackend.class));
+  }
+
+  @Test public void onPermissionDeniedThenTheDialogResultIsReported() {
+    when(hostLauncher.launch(RequestBackend.AUTOMATIC)).thenReturn(true);
+
+    whenCheckPermission(listener, ANY_PERMISSION);
+    stateMachine.onHostReady(host);
+    stateMachine.onPermissionsRequested(Collections.<String>emptyList(),
+        Collections.singletonList(ANY_PERMISSION));
+
+    verify(host).requestPermissions(eq(new String[]{ANY_PERMISSION}), anyInt());
+    verify(listener).onPermissionsChecked(argThat(getReportMatcher(0, 1)));
+    verify(host).finish();
+  }
+
+  @Test public void onOngoingRequestFinishedThenQueuedRequestReusesItsHost() {
+    when(hostLauncher.launch(RequestBackend.AUTOMATIC)).thenReturn(true);
+
+    whenCheckPermission(listener, ANY_PERMISSION);
+    stateMachine.onHostReady(host);
+    whenCheckPermission(otherListener, OTHER_PERMISSION);
+    stateMachine.onPermissionsRequested(Collections.singletonList(ANY_PERMISSION),
+        Collections.<String>emptyList());
+
+    verify(listener).onPermissionsChecked(argThat(getReportMatcher(1, 0)));
+    verify(host).requestPermissions(eq(new String[]{OTHER_PERMISSION}), anyInt());
+    verify(host, never()).finish();
+  }
+
+  @Test public void onHostNotLaunchedThenRequestIsAbandoned() {
+    when(hostLauncher.launch(RequestBackend.AUTOMATIC)).thenReturn(false);
+    permissionService.grant(OTHER_PERMISSION);
+
+    whenCheckPermission(listener, ANY_PERMISSION);
+    whenCheckPermission(otherListener, OTHER_PERMISSION);
+
+    verify(listener, never()).onPermissionsChecked(any(MultiplePermissionsReport.class));
+    verify(otherListener).onPermissionsChecked(argThat(getReportMatcher(1, 0)));
+  }
+
+  private void whenCheckPermission(MultiplePermissionsListener listener, String permission) {
+    stateMachine.checkPermissions(listener, Collections.singletonList(permission), THREAD,
+        errorListener, RequestBackend.AUTOMATIC, DexterEvents.NONE, true);
+  }
+
+  private static ArgumentMatcher<MultiplePermissionsReport> getReportMatcher(
+      final int grantedPermissions, final int deniedPermissions) {
+    return new ArgumentMatcher<MultiplePermissionsReport>() {
+      @Override public boolean matches(MultiplePermissionsReport report) {
+        return report.getGrantedPermissionResponses().size() == grantedPermissions
+            && report.getDeniedPermissionResponses().size() == deniedPermissions;
+      }
+    };
+  }
+
+  private static class FakePermissionService implements PermissionService {
+
+    private final Set<String> grantedPermissions = new HashSet<>();
+
+    void grant(String permission) {
+      grantedPermissions.add(permission);
+    }
+
+    @Override public boolean isAvailable() {
+      return true;
+    }
+
+    @Override public boolean areGranted(List<String> permissions) {
+      return grantedPermissions.containsAll(permissions);
+    }
+
+    @Override public void checkSelfPermissions(String[] permissions, int[] permissionStates) {
+      for (int i = 0; i < permissions.length; i++) {
+        permissionStates[i] = grantedPermissions.contains(permissions[i]) ? PERMISSION_GRANTED
+            : PERMISSION_DENIED;
+      }
+    }
+
+    @Override public void onPermissionsGranted(Collection<String> permissions) {
+      grantedPermissions.addAll(permissions);
+    }
+
+    @Override public void onPermissionsDenied(Collection<String> permissions) {
+      grantedPermissions.removeAll(permissions);
+    }
+  }
+
+  private static class TestThread implements Thread {
+
+    @Override public void execute(Runnable runnable) {
+      runnable.run();
+    }
+
+    @Override public boolean isCurrentThread() {
+      return true;
+    }
+  }
+}
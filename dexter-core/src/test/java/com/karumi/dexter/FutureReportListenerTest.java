@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class) public class FutureReportListenerTest {
+
+  @Mock MultiplePermissionsListener listener;
+  @Mock PermissionRequestErrorListener errorListener;
+
+  private DexterFuture<MultiplePermissionsReport> future;
+  private FutureReportListener futureListener;
+
+  @Before public void setUp() {
+    future = new DexterFuture<>();
+    futureListener = new FutureReportListener(listener, errorListener, future);
+  }
+
+  @Test public void onPermissionsCheckedThenFutureIsCompletedAndListenerNotified()
+      throws Exception {
+    MultiplePermissionsReport report = new MultiplePermissionsReport();
+
+    futureListener.onPermissionsChecked(report);
+
+    assertSame(report, future.get());
+    verify(listener).onPermissionsChecked(report);
+  }
+
+  @Test public void onFutureCancelledThenListenersAreNotNotified() {
+    future.cancel(false);
+
+    futureListener.onPermissionsChecked(new MultiplePermissionsReport());
+    futureListener.onError(DexterError.REQUEST_ONGOING);
+
+    verify(listener, never()).onPermissionsChecked(any(MultiplePermissionsReport.class));
+    verify(errorListener, never()).onError(any(DexterError.class));
+  }
+}
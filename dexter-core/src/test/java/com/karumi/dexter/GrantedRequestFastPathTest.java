@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.multi.BaseStreamingMultiplePermissionsListener;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GrantedRequestFastPathTest {
+
+  private static final List<String> ANY_PERMISSIONS =
+      Arrays.asList("noissimrep yna", "noissimrep rehto");
+  private static final List<String> ANY_PERMISSION = Collections.singletonList("noissimrep yna");
+  private static final int WARM_UP_CHECKS = 10000;
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private CountingListener listener;
+
+  @Before public void setUp() {
+    listener = new CountingListener();
+  }
+
+  @Test public void onGrantedPermissionsCheckedAgainThenNoAllocationIsDone() {
+    GrantedRequestFastPath fastPath = new GrantedRequestFastPath(new FakeGrantedPermissions(true));
+    for (int i = 0; i < WARM_UP_CHECKS; i++) {
+      fastPath.check(listener, ANY_PERMISSIONS, new CurrentThread(true));
+    }
+    Thread thread = new CurrentThread(true);
+    getAllocatedBytes();
+
+    long allocatedBytesBefore = getAllocatedBytes();
+    boolean resolved = fastPath.check(listener, ANY_PERMISSIONS, thread);
+    long allocatedBytesAfter = getAllocatedBytes();
+
+    assertTrue(resolved);
+    assertEquals(0, allocatedBytesAfter - allocatedBytesBefore);
+    assertEquals(WARM_UP_CHECKS + 1, listener.checkedReports);
+    assertEquals(2 * (WARM_UP_CHECKS + 1), listener.grantedResponses);
+  }
+
+  @Test public void onGrantedPermissionCheckedAgainThroughTheStateMachineThenNoAllocationIsDone() {
+    DexterStateMachine stateMachine =
+        new DexterStateMachine(new FakeGrantedPermissions(true), null, null, null);
+    Thread thread = new CurrentThread(true);
+    for (int i = 0; i < WARM_UP_CHECKS; i++) {
+      checkPermission(stateMachine, thread);
+    }
+    getAllocatedBytes();
+
+    long allocatedBytesBefore = getAllocatedBytes();
+    DexterRequest request = checkPermission(stateMachine, thread);
+    long allocatedBytesAfter = getAllocatedBytes();
+
+    assertNull(request);
+    assertEquals(0, allocatedBytesAfter - allocatedBytesBefore);
+    assertEquals(WARM_UP_CHECKS + 1, listener.checkedReports);
+  }
+
+  @Test public void onCallerNotRunningOnListenerThreadThenListenerIsNotNotified() {
+    GrantedRequestFastPath fastPath = new GrantedRequestFastPath(new FakeGrantedPermissions(true));
+
+    boolean resolved = fastPath.check(listener, ANY_PERMISSIONS, new CurrentThread(false));
+
+    assertFalse(resolved);
+    assertEquals(0, listener.checkedReports);
+  }
+
+  private DexterRequest checkPermission(DexterStateMachine stateMachine, Thread thread) {
+    return stateMachine.checkPermissions(listener, ANY_PERMISSION, thread, null,
+        RequestBackend.AUTOMATIC, DexterEvents.NONE, true);
+  }
+
+  private static long getAllocatedBytes() {
+    return THREAD_MX_BEAN.getThreadAllocatedBytes(java.lang.Thread.currentThread().getId());
+  }
+
+  private static class FakeGrantedPermissions implements PermissionService {
+
+    private final boolean granted;
+
+    FakeGrantedPermissions(boolean granted) {
+      this.granted = granted;
+    }
+
+    @Override public boolean areGranted(List<String> permissions) {
+      return granted;
+    }
+
+    @Override public boolean isAvailable() {
+      return true;
+    }
+
+    @Override public void checkSelfPermissions(String[] permissions, int[] permissionStates) {
+      Arrays.fill(permissionStates, granted ? PERMISSION_GRANTED : PERMISSION_DENIED);
+    }
+
+    @Override public void onPermissionsGranted(Collection<String> permissions) {
+    }
+
+    @Override public void onPermissionsDenied(Collection<String> permissions) {
+    }
+  }
+
+  private static class CurrentThread implements Thread {
+
+    private final boolean isCurrentThread;
+
+    CurrentThread(boolean isCurrentThread) {
+      this.isCurrentThread = isCurrentThread;
+    }
+
+    @Override public void execute(Runnable runnable) {
+      runnable.run();
+    }
+
+    @Override public boolean isCurrentThread() {
+      return isCurrentThread;
+    }
+  }
+
+  private static class CountingListener extends BaseStreamingMultiplePermissionsListener {
+
+    private int checkedReports;
+    private int grantedResponses;
+
+    @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
+      checkedReports++;
+    }
+
+    @Override public void onPermissionGranted(PermissionGrantedResponse response) {
+      grantedResponses++;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MetricsRegistryTest {
+
+  private static final long ANY_REQUEST_ID = 1;
+  private static final long OTHER_REQUEST_ID = 2;
+  private static final long START_TIME = TimeUnit.SECONDS.toNanos(10);
+
+  private MetricsRegistry registry;
+
+  @Before public void setUp() {
+    registry = new MetricsRegistry();
+  }
+
+  @Test public void onRequestEventsThenTheyAreCounted() {
+    registry.onRequestChecked(ANY_REQUEST_ID, Collections.singleton("any"), START_TIME);
+    registry.onRequestStarted(ANY_REQUEST_ID, START_TIME);
+    registry.onRequestChecked(OTHER_REQUEST_ID, Collections.singleton("any"), START_TIME);
+    registry.onRequestCoalesced(OTHER_REQUEST_ID, START_TIME);
+    registry.onRequestFailed(OTHER_REQUEST_ID, DexterError.REQUEST_ONGOING, START_TIME);
+    registry.onReportDelivered(ANY_REQUEST_ID, START_TIME);
+
+    DexterMetrics metrics = registry.snapshot(3, 1, 1);
+
+    assertEquals(2, metrics.getRequestsChecked());
+    assertEquals(1, metrics.getRequestsStarted());
+    assertEquals(1, metrics.getRequestsCoalesced());
+    assertEquals(1, metrics.getRequestsCompleted());
+    assertEquals(1, metrics.getRequestsFailed(DexterError.REQUEST_ONGOING));
+    assertEquals(0, metrics.getRequestsFailed(DexterError.NO_PERMISSIONS_REQUESTED));
+    assertEquals(0.75, metrics.getCacheHitRate(), 0);
+  }
+
+  @Test public void onPhaseFinishedThenItsLatencyIsRecordedInItsBucket() {
+    registry.onHostLaunched(ANY_REQUEST_ID, START_TIME);
+    registry.onHostReady(ANY_REQUEST_ID, START_TIME + TimeUnit.MILLISECONDS.toNanos(30));
+
+    DexterMetrics.LatencyHistogram latency = registry.snapshot(0, 0, 0).getActivityLaunchLatency();
+
+    assertEquals(1, latency.getCount());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(30), latency.getMaxNanos());
+    assertArrayEquals(new long[] {0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+        latency.getBucketCounts());
+  }
+
+  @Test public void onPhaseFinishedForAnotherRequestThenNoLatencyIsRecorded() {
+    registry.onSystemDialogShown(ANY_REQUEST_ID, START_TIME);
+    registry.onSystemDialogDismissed(OTHER_REQUEST_ID, START_TIME);
+
+    assertEquals(0, registry.snapshot(0, 0, 0).getUserDecisionLatency().getCount());
+  }
+}
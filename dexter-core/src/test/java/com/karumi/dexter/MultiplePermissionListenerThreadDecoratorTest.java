@@ -19,6 +19,8 @@ package com.karumi.dexter;
 import com.karumi.dexter.listener.PermissionRequest;
 import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
 import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -26,6 +28,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 
@@ -45,6 +48,10 @@ import static org.mockito.Mockito.verify;
     decorator = new MultiplePermissionListenerThreadDecorator(listener, thread);
   }
 
+  @After public void tearDown() {
+    Tracing.setTracer(null);
+  }
+
   @Test public void onPermissionCheckedThenListenerIsDecorated() {
     decorator.onPermissionsChecked(null);
 
@@ -59,6 +66,60 @@ import static org.mockito.Mockito.verify;
     assertTrue(thread.decorated);
   }
 
+  @Test public void onExecutorThreadThenListenerIsNotifiedOnTheExecutor() {
+    SpyExecutor executor = new SpyExecutor();
+    decorator = new MultiplePermissionListenerThreadDecorator(listener,
+        new ExecutorThread(executor));
+
+    decorator.onPermissionsChecked(null);
+
+    verify(listener).onPermissionsChecked(null);
+    assertTrue(executor.executed);
+  }
+
+  @Test public void onTracingEnabledThenListenerIsNotifiedWithinATraceSection() {
+    SpyTracer tracer = new SpyTracer();
+    Tracing.setTracer(tracer);
+
+    decorator.onPermissionsChecked(null);
+
+    verify(listener).onPermissionsChecked(null);
+    assertEquals(1, tracer.begunSections);
+    assertEquals(1, tracer.endedSections);
+  }
+
+  private static class SpyTracer implements Tracer {
+
+    public int begunSections;
+    public int endedSections;
+
+    @Override public void beginSection(String name) {
+      begunSections++;
+    }
+
+    @Override public void endSection() {
+      endedSections++;
+    }
+
+    @Override public void beginAsyncSection(String name, int cookie) {
+
+    }
+
+    @Override public void endAsyncSection(String name, int cookie) {
+
+    }
+  }
+
+  private static class SpyExecutor implements Executor {
+
+    public boolean executed;
+
+    @Override public void execute(Runnable runnable) {
+      executed = true;
+      runnable.run();
+    }
+  }
+
   private static class DummyPermissionToken implements PermissionToken {
 
     @Override public void continuePermissionRequest() {
@@ -79,8 +140,8 @@ import static org.mockito.Mockito.verify;
       runnable.run();
     }
 
-    @Override public void loop() {
-
+    @Override public boolean isCurrentThread() {
+      return true;
     }
   }
 }
\ No newline at end of file
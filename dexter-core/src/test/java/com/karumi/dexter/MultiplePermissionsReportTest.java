@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class MultiplePermissionsReportTest {
+
+    private static final PermissionGrantedResponse GRANTED_RESPONSE =
+            PermissionGrantedResponse.from("CAMERA");
+    private static final PermissionGrantedResponse OTHER_GRANTED_RESPONSE =
+            PermissionGrantedResponse.from("CONTACTS");
+    private static final PermissionDeniedResponse DENIED_RESPONSE =
+            PermissionDeniedResponse.from("MICROPHONE", true);
+    private static final PermissionDeniedResponse OTHER_DENIED_RESPONSE =
+            PermissionDeniedResponse.from("STORAGE", false);
+
+    @Test
+    public void shouldReplaceOldPermissionGrantedReportsWithTheNewOnes() {
+        MultiplePermissionsReport report = new MultiplePermissionsReport();
+
+        report.addGrantedPermissionResponse(GRANTED_RESPONSE);
+        report.addGrantedPermissionResponse(OTHER_GRANTED_RESPONSE);
+        report.addGrantedPermissionResponse(GRANTED_RESPONSE);
+
+        List<PermissionGrantedResponse> expectedPermissions = new LinkedList<>();
+        expectedPermissions.add(GRANTED_RESPONSE);
+        expectedPermissions.add(OTHER_GRANTED_RESPONSE);
+        assertEquals(expectedPermissions, report.getGrantedPermissionResponses());
+    }
+
+    @Test
+    public void shouldReplaceOldPermissionDeniedReportsWithTheNewOnes() {
+        MultiplePermissionsReport report = new MultiplePermissionsReport();
+
+        report.addDeniedPermissionResponse(DENIED_RESPONSE);
+        report.addDeniedPermissionResponse(OTHER_DENIED_RESPONSE);
+        report.addDeniedPermissionResponse(DENIED_RESPONSE);
+
+        List<PermissionDeniedResponse> expectedPermissions = new LinkedList<>();
+        expectedPermissions.add(DENIED_RESPONSE);
+        expectedPermissions.add(OTHER_DENIED_RESPONSE);
+        assertEquals(expectedPermissions, report.getDeniedPermissionResponses());
+    }
+
+    @Test
+    public void shouldKeepOnlyTheRequestedPermissionsWhenFiltered() {
+        MultiplePermissionsReport report = new MultiplePermissionsReport();
+        report.addGrantedPermissionResponse(GRANTED_RESPONSE);
+        report.addGrantedPermissionResponse(OTHER_GRANTED_RESPONSE);
+        report.addDeniedPermissionResponse(DENIED_RESPONSE);
+
+        MultiplePermissionsReport filteredReport =
+                report.filter(new HashSet<>(Arrays.asList("CAMERA", "MICROPHONE")));
+
+        assertEquals(Collections.singletonList(GRANTED_RESPONSE),
+                filteredReport.getGrantedPermissionResponses());
+        assertEquals(Collections.singletonList(DENIED_RESPONSE),
+                filteredReport.getDeniedPermissionResponses());
+    }
+
+    @Test
+    public void shouldLookUpTheStateOfEachPermission() {
+        MultiplePermissionsReport report = new MultiplePermissionsReport();
+        report.addGrantedPermissionResponse(GRANTED_RESPONSE);
+        report.addDeniedPermissionResponse(DENIED_RESPONSE);
+        report.addDeniedPermissionResponse(OTHER_DENIED_RESPONSE);
+
+        assertTrue(report.isPermissionGranted("CAMERA"));
+        assertTrue(report.isPermissionDenied("STORAGE"));
+        assertTrue(report.isPermissionPermanentlyDenied("MICROPHONE"));
+        assertFalse(report.isPermissionPermanentlyDenied("STORAGE"));
+        assertFalse(report.isPermissionGranted("CONTACTS"));
+        assertTrue(report.isAnyPermissionPermanentlyDenied());
+    }
+
+    @Test
+    public void shouldLookUpPermissionsLeftOutOfAFullIndex() {
+        for (int i = 0; i < PermissionIndex.MAX_PERMISSIONS; i++) {
+            PermissionIndex.indexOf("FILLER_" + i);
+        }
+        PermissionGrantedResponse grantedResponse = PermissionGrantedResponse.from("UNINDEXED");
+        PermissionDeniedResponse deniedResponse =
+                PermissionDeniedResponse.from("OTHER_UNINDEXED", true);
+        MultiplePermissionsReport report = new MultiplePermissionsReport();
+
+        assertTrue(report.addGrantedPermissionResponse(grantedResponse));
+        assertFalse(report.addGrantedPermissionResponse(grantedResponse));
+        assertTrue(report.addDeniedPermissionResponse(deniedResponse));
+
+        assertEquals(-1, PermissionIndex.indexOf("UNINDEXED"));
+        assertTrue(report.isPermissionGranted("UNINDEXED"));
+        assertTrue(report.isPermissionPermanentlyDenied("OTHER_UNINDEXED"));
+        assertTrue(report.isAnyPermissionPermanentlyDenied());
+        assertFalse(report.areAllPermissionsGranted());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowModifyingTheResponsesView() {
+        MultiplePermissionsReport report = new MultiplePermissionsReport();
+        report.addGrantedPermissionResponse(GRANTED_RESPONSE);
+
+        report.getGrantedPermissionResponsesView().add(OTHER_GRANTED_RESPONSE);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.PermissionRequest;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PermissionResponsesTest {
+
+  private static final String ANY_PERMISSION = "noissimrep yna";
+
+  @Test public void onSamePermissionResolvedTwiceThenTheSameResponsesAreReturned() {
+    assertSame(PermissionGrantedResponse.from(ANY_PERMISSION),
+        PermissionGrantedResponse.from(new String(ANY_PERMISSION)));
+    assertSame(PermissionDeniedResponse.from(ANY_PERMISSION, true),
+        PermissionDeniedResponse.from(ANY_PERMISSION, true));
+    assertSame(PermissionRequest.from(ANY_PERMISSION),
+        PermissionGrantedResponse.from(ANY_PERMISSION).getRequestedPermission());
+  }
+
+  @Test public void onPermissionDeniedThenPermanentDenialIsKeptApart() {
+    PermissionDeniedResponse deniedResponse = PermissionDeniedResponse.from(ANY_PERMISSION, false);
+    PermissionDeniedResponse permanentlyDeniedResponse =
+        PermissionDeniedResponse.from(ANY_PERMISSION, true);
+
+    assertNotSame(deniedResponse, permanentlyDeniedResponse);
+    assertFalse(deniedResponse.isPermanentlyDenied());
+    assertTrue(permanentlyDeniedResponse.isPermanentlyDenied());
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import com.karumi.dexter.listener.DexterError;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class) public class TracingEventListenerTest {
+
+  private static final long ANY_REQUEST_ID = 1;
+  private static final long OTHER_REQUEST_ID = 2;
+  private static final long ANY_TIMESTAMP = 10;
+
+  @Mock Tracer tracer;
+
+  private TracingEventListener listener;
+
+  @Before public void setUp() {
+    listener = new TracingEventListener(tracer);
+  }
+
+  @Test public void onRequestFinishedWithoutStartingThenItsSectionIsEnded() {
+    listener.onRequestChecked(ANY_REQUEST_ID, Collections.singleton("any"), ANY_TIMESTAMP);
+    listener.onRequestResolvedFromCache(ANY_REQUEST_ID, ANY_TIMESTAMP);
+    listener.onRequestChecked(OTHER_REQUEST_ID, Collections.singleton("any"), ANY_TIMESTAMP);
+    listener.onRequestFailed(OTHER_REQUEST_ID, DexterError.REQUEST_ONGOING, ANY_TIMESTAMP);
+
+    verify(tracer).endAsyncSection(TracingEventListener.REQUEST_SECTION, (int) ANY_REQUEST_ID);
+    verify(tracer).endAsyncSection(TracingEventListener.REQUEST_SECTION, (int) OTHER_REQUEST_ID);
+  }
+
+  @Test public void onRequestStartedAfterBeingCheckedThenItsSectionIsBegunOnce() {
+    listener.onRequestChecked(ANY_REQUEST_ID, Collections.singleton("any"), ANY_TIMESTAMP);
+    listener.onRequestStarted(ANY_REQUEST_ID, ANY_TIMESTAMP);
+    listener.onRequestCancelled(ANY_REQUEST_ID, ANY_TIMESTAMP);
+    listener.onReportDelivered(ANY_REQUEST_ID, ANY_TIMESTAMP);
+
+    verify(tracer, times(1))
+        .beginAsyncSection(TracingEventListener.REQUEST_SECTION, (int) ANY_REQUEST_ID);
+    verify(tracer, times(1))
+        .endAsyncSection(TracingEventListener.REQUEST_SECTION, (int) ANY_REQUEST_ID);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.rx;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import com.karumi.dexter.PermissionStatus;
+import io.reactivex.Flowable;
+import io.reactivex.processors.BehaviorProcessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.reactivestreams.Publisher;
+
+/**
+ * Caches the last known status of every observed permission and shares it across subscribers.
+ *
+ * The statuses with subscribers are resolved again in a single batch whenever an activity of the
+ * application is resumed, which covers the user coming back from the permission dialog or from
+ * the system settings. Only the statuses that changed are emitted.
+ */
+final class PermissionStateSource implements Application.ActivityLifecycleCallbacks {
+
+  private final StatusChecker statusChecker;
+  private final Map<String, BehaviorProcessor<PermissionStatus>> processors = new HashMap<>();
+
+  PermissionStateSource(StatusChecker statusChecker) {
+    this.statusChecker = statusChecker;
+  }
+
+  /**
+   * Returns a stream emitting the current status of the permission on subscription and every
+   * later change of it. Slow subscribers only receive the latest status.
+   */
+  Flowable<PermissionStatus> observe(final String permission) {
+    return Flowable.defer(new Callable<Publisher<PermissionStatus>>() {
+      @Override public Publisher<PermissionStatus> call() {
+        return getUpToDateProcessor(permission).onBackpressureLatest();
+      }
+    });
+  }
+
+  /**
+   * Resolves again the status of the permissions with subscribers emitting the ones that changed
+   */
+  synchronized void refresh() {
+    List<String> observedPermissions = new ArrayList<>();
+    for (Map.Entry<String, BehaviorProcessor<PermissionStatus>> entry : processors.entrySet()) {
+      if (entry.getValue().hasSubscribers()) {
+        observedPermissions.add(entry.getKey());
+      }
+    }
+
+    if (observedPermissions.isEmpty()) {
+      return;
+    }
+
+    String[] permissions = observedPermissions.toArray(new String[0]);
+    PermissionStatus[] statuses = new PermissionStatus[permissions.length];
+    statusChecker.checkPermissionStatuses(permissions, statuses);
+    for (int i = 0; i < permissions.length; i++) {
+      publish(processors.get(permissions[i]), statuses[i]);
+    }
+  }
+
+  private synchronized BehaviorProcessor<PermissionStatus> getUpToDateProcessor(
+      String permission) {
+    String[] permissions = new String[] { permission };
+    PermissionStatus[] statuses = new PermissionStatus[1];
+    statusChecker.checkPermissionStatuses(permissions, statuses);
+
+    BehaviorProcessor<PermissionStatus> processor = processors.get(permission);
+    if (processor == null) {
+      processor = BehaviorProcessor.createDefault(statuses[0]);
+      processors.put(permission, processor);
+    } else {
+      publish(processor, statuses[0]);
+    }
+    return processor;
+  }
+
+  private void publish(BehaviorProcessor<PermissionStatus> processor, PermissionStatus status) {
+    if (processor.getValue() != status) {
+      processor.onNext(status);
+    }
+  }
+
+  @Override public void onActivityResumed(Activity activity) {
+    refresh();
+  }
+
+  @Override public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+  }
+
+  @Override public void onActivityStarted(Activity activity) {
+  }
+
+  @Override public void onActivityPaused(Activity activity) {
+  }
+
+  @Override public void onActivityStopped(Activity activity) {
+  }
+
+  @Override public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+  }
+
+  @Override public void onActivityDestroyed(Activity activity) {
+  }
+
+  interface StatusChecker {
+    /**
+     * Writes the current status of each permission into the statuses array
+     */
+    void checkPermissionStatuses(String[] permissions, PermissionStatus[] statuses);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.rx;
+
+import android.app.Application;
+import android.content.Context;
+import com.karumi.dexter.Dexter;
+import com.karumi.dexter.DexterBuilder;
+import com.karumi.dexter.DexterFuture;
+import com.karumi.dexter.MultiplePermissionsReport;
+import com.karumi.dexter.PermissionStatus;
+import com.karumi.dexter.listener.multi.BaseMultiplePermissionsListener;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.functions.Cancellable;
+
+/**
+ * RxJava adapters for the Dexter permission requests and permission statuses
+ */
+public final class RxDexter {
+
+  private static PermissionStateSource stateSource;
+
+  private RxDexter() {
+  }
+
+  /**
+   * Requests the given permissions continuing the request when a rationale should be shown.
+   * The report is emitted once the user has answered and disposing cancels the request.
+   *
+   * @param permissions Array of values found in {@link android.Manifest.permission}
+   */
+  public static Single<MultiplePermissionsReport> request(Context context,
+      String... permissions) {
+    return check(Dexter.withContext(context)
+        .withPermissions(permissions)
+        .withListener(new BaseMultiplePermissionsListener()));
+  }
+
+  /**
+   * Checks the permissions of an already configured builder every time the returned single is
+   * subscribed to. The listeners of the builder are still notified, errors are emitted as
+   * {@link com.karumi.dexter.DexterException} and disposing cancels the request.
+   */
+  public static Single<MultiplePermissionsReport> check(final DexterBuilder builder) {
+    return Single.create(new SingleOnSubscribe<MultiplePermissionsReport>() {
+      @Override public void subscribe(final SingleEmitter<MultiplePermissionsReport> emitter) {
+        final DexterFuture<MultiplePermissionsReport> future = builder.checkAsync();
+        emitter.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            future.cancel(false);
+          }
+        });
+        future.addCallback(new DexterFuture.Callback<MultiplePermissionsReport>() {
+          @Override public void onSuccess(MultiplePermissionsReport report) {
+            refreshObservedPermissions();
+            emitter.onSuccess(report);
+          }
+
+          @Override public void onFailure(Throwable throwable) {
+            emitter.tryOnError(throwable);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Observes the status of a permission without requesting it nor showing any UI. The current
+   * status is emitted on subscription followed by every distinct change, detected when the
+   * permission is requested or an activity of the application is resumed. All the subscribers
+   * share the same cached status and slow subscribers only receive the latest one. Use
+   * {@link Flowable#toObservable()} to get an Observable instead.
+   *
+   * @param permission One of the values found in {@link android.Manifest.permission}
+   */
+  public static Flowable<PermissionStatus> observe(Context context, String permission) {
+    return getStateSource(context).observe(permission).distinctUntilChanged();
+  }
+
+  private static synchronized PermissionStateSource getStateSource(Context context) {
+    if (stateSource == null) {
+      final Context applicationContext = context.getApplicationContext();
+      stateSource = new PermissionStateSource(new PermissionStateSource.StatusChecker() {
+        @Override public void checkPermissionStatuses(String[] permissions,
+            PermissionStatus[] statuses) {
+          Dexter.checkPermissionStatuses(applicationContext, permissions, statuses);
+        }
+      });
+      if (applicationContext instanceof Application) {
+        ((Application) applicationContext).registerActivityLifecycleCallbacks(stateSource);
+      }
+    }
+    return stateSource;
+  }
+
+  private static void refreshObservedPermissions() {
+    PermissionStateSource currentStateSource;
+    synchronized (RxDexter.class) {
+      currentStateSource = stateSource;
+    }
+    if (currentStateSource != null) {
+      currentStateSource.refresh();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.rx;
+
+import com.karumi.dexter.PermissionStatus;
+import io.reactivex.subscribers.TestSubscriber;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermissionStateSourceTest {
+
+  private static final String ANY_PERMISSION = "noissimrep yna";
+
+  private FakeStatusChecker statusChecker;
+  private PermissionStateSource stateSource;
+
+  @Before public void setUp() {
+    statusChecker = new FakeStatusChecker();
+    stateSource = new PermissionStateSource(statusChecker);
+  }
+
+  @Test public void onRefreshThenOnlyDistinctStatusChangesAreEmitted() {
+    statusChecker.givenStatus(ANY_PERMISSION, PermissionStatus.DENIED);
+    TestSubscriber<PermissionStatus> subscriber = stateSource.observe(ANY_PERMISSION).test();
+
+    stateSource.refresh();
+    statusChecker.givenStatus(ANY_PERMISSION, PermissionStatus.GRANTED);
+    stateSource.refresh();
+    stateSource.refresh();
+
+    subscriber.assertValues(PermissionStatus.DENIED, PermissionStatus.GRANTED);
+  }
+
+  @Test public void onSeveralSubscribersThenTheyShareTheCachedStatus() {
+    statusChecker.givenStatus(ANY_PERMISSION, PermissionStatus.DENIED);
+    TestSubscriber<PermissionStatus> firstSubscriber =
+        stateSource.observe(ANY_PERMISSION).test();
+
+    statusChecker.givenStatus(ANY_PERMISSION, PermissionStatus.GRANTED);
+    TestSubscriber<PermissionStatus> secondSubscriber =
+        stateSource.observe(ANY_PERMISSION).test();
+
+    firstSubscriber.assertValues(PermissionStatus.DENIED, PermissionStatus.GRANTED);
+    secondSubscriber.assertValues(PermissionStatus.GRANTED);
+  }
+
+  private static class FakeStatusChecker implements PermissionStateSource.StatusChecker {
+
+    private final Map<String, PermissionStatus> statuses = new HashMap<>();
+
+    void givenStatus(String permission, PermissionStatus status) {
+      statuses.put(permission, status);
+    }
+
+    @Override public void checkPermissionStatuses(String[] permissions,
+        PermissionStatus[] statuses) {
+      for (int i = 0; i < permissions.length; i++) {
+        statuses[i] = this.statuses.get(permissions[i]);
+      }
+    }
+  }
+}
@@ -6,3 +6,6 @@
 -keep interface com.karumi.dexter.** { *; }
 -keepclasseswithmembernames class com.karumi.dexter.** { *; }
 -keepclasseswithmembernames interface com.karumi.dexter.** { *; }
+
+# ListenableFutureAdapter is only used when the app depends on ListenableFuture
+-dontwarn com.google.common.util.concurrent.ListenableFuture
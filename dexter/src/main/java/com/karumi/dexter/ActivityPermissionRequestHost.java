@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.app.Activity;
+
+/**
+ * Host requesting the permissions through an activity, usually the internal {@link DexterActivity}
+ */
+final class ActivityPermissionRequestHost implements PermissionRequestHost {
+
+  private final Activity activity;
+  private final AndroidPermissionService androidPermissionService;
+
+  ActivityPermissionRequestHost(Activity activity,
+      AndroidPermissionService androidPermissionService) {
+    this.activity = activity;
+    this.androidPermissionService = androidPermissionService;
+  }
+
+  @Override public void requestPermissions(String[] permissions, int requestCode) {
+    androidPermissionService.requestPermissions(activity, permissions, requestCode);
+  }
+
+  @Override public boolean shouldShowRequestPermissionRationale(String permission) {
+    return androidPermissionService.shouldShowRequestPermissionRationale(activity, permission);
+  }
+
+  @Override public boolean isPermissionPermanentlyDenied(String permission) {
+    return androidPermissionService.isPermissionPermanentlyDenied(activity, permission);
+  }
+
+  @Override public boolean isFinishing() {
+    return activity.isFinishing();
+  }
+
+  @Override public void finish() {
+    activity.finish();
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ActivityPermissionRequestHost that = (ActivityPermissionRequestHost) o;
+    return activity == that.activity;
+  }
+
+  @Override public int hashCode() {
+    return System.identityHashCode(activity);
+  }
+}
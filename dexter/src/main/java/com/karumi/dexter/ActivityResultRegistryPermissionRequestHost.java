@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import androidx.activity.ComponentActivity;
+import androidx.activity.result.ActivityResultCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.core.content.PermissionChecker;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Host requesting the permissions through a launcher registered in the
+ * {@link androidx.activity.result.ActivityResultRegistry} of the caller activity
+ */
+final class ActivityResultRegistryPermissionRequestHost
+    implements PermissionRequestHost, LifecycleEventObserver {
+
+  private static final String KEY_PREFIX = "com.karumi.dexter.permissions#";
+  private static final AtomicInteger NEXT_KEY = new AtomicInteger();
+
+  private final ComponentActivity activity;
+  private final AndroidPermissionService androidPermissionService;
+  private ActivityResultLauncher<String[]> launcher;
+  private String[] requestedPermissions = new String[0];
+  private boolean isFinishing = false;
+
+  ActivityResultRegistryPermissionRequestHost(ComponentActivity activity,
+      AndroidPermissionService androidPermissionService) {
+    this.activity = activity;
+    this.androidPermissionService = androidPermissionService;
+  }
+
+  /**
+   * Registers the launcher used to request the permissions. It has to be called from the main
+   * thread
+   */
+  void register() {
+    launcher = activity.getActivityResultRegistry()
+        .register(KEY_PREFIX + NEXT_KEY.getAndIncrement(),
+            new ActivityResultContracts.RequestMultiplePermissions(),
+            new ActivityResultCallback<Map<String, Boolean>>() {
+              @Override public void onActivityResult(Map<String, Boolean> result) {
+                onPermissionsResult(result);
+              }
+            });
+    activity.getLifecycle().addObserver(this);
+  }
+
+  @Override public void requestPermissions(final String[] permissions, int requestCode) {
+    ThreadFactory.makeMainThread().execute(new Runnable() {
+      @Override public void run() {
+        if (launcher != null) {
+          requestedPermissions = permissions;
+          launcher.launch(permissions);
+        }
+      }
+    });
+  }
+
+  @Override public boolean shouldShowRequestPermissionRationale(String permission) {
+    return androidPermissionService.shouldShowRequestPermissionRationale(activity, permission);
+  }
+
+  @Override public boolean isPermissionPermanentlyDenied(String permission) {
+    return androidPermissionService.isPermissionPermanentlyDenied(activity, permission);
+  }
+
+  @Override public boolean isFinishing() {
+    return isFinishing || activity.isFinishing();
+  }
+
+  /*
+   * Only the launcher is unregistered here. The lifecycle observer is kept until the activity is
+   * destroyed so Dexter stops referencing this host, and so the activity, once that happens.
+   */
+  @Override public void finish() {
+    isFinishing = true;
+    ThreadFactory.makeMainThread().execute(new Runnable() {
+      @Override public void run() {
+        unregisterLauncher();
+      }
+    });
+  }
+
+  @Override public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+    if (event == Lifecycle.Event.ON_DESTROY) {
+      unregisterLauncher();
+      activity.getLifecycle().removeObserver(this);
+      Dexter.onHostDestroyed(this);
+    }
+  }
+
+  private void unregisterLauncher() {
+    if (launcher != null) {
+      launcher.unregister();
+      launcher = null;
+    }
+  }
+
+  /*
+   * The contract returns an empty map when the request is interrupted, in that case every
+   * requested permission is considered as denied.
+   */
+  private void onPermissionsResult(Map<String, Boolean> result) {
+    String[] permissions = requestedPermissions;
+    int[] grantResults = new int[permissions.length];
+    for (int i = 0; i < permissions.length; i++) {
+      Boolean granted = result.get(permissions[i]);
+      grantResults[i] = granted != null && granted ? PermissionChecker.PERMISSION_GRANTED
+          : PermissionChecker.PERMISSION_DENIED;
+    }
+    PermissionsResultDispatcher.dispatch(activity, permissions, grantResults);
+  }
+}
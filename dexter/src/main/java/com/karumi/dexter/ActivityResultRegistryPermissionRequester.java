@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import androidx.activity.ComponentActivity;
+
+/**
+ * Backend registering a permission request in the
+ * {@link androidx.activity.result.ActivityResultRegistry} of the
+ * {@link ComponentActivity} Dexter has been called with
+ */
+final class ActivityResultRegistryPermissionRequester implements PermissionRequester {
+
+  private final AndroidPermissionService androidPermissionService;
+
+  ActivityResultRegistryPermissionRequester(AndroidPermissionService androidPermissionService) {
+    this.androidPermissionService = androidPermissionService;
+  }
+
+  @Override public boolean canStartFrom(Context context) {
+    return context instanceof ComponentActivity && !((ComponentActivity) context).isFinishing();
+  }
+
+  @Override public void start(Context context) {
+    final ActivityResultRegistryPermissionRequestHost host =
+        new ActivityResultRegistryPermissionRequestHost((ComponentActivity) context,
+            androidPermissionService);
+    ThreadFactory.makeMainThread().execute(new Runnable() {
+      @Override public void run() {
+        host.register();
+        Dexter.onHostReady(host);
+      }
+    });
+  }
+}
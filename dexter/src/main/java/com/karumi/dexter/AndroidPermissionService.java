@@ -18,10 +18,13 @@ package com.karumi.dexter;
 
 import android.app.Activity;
 import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
 import android.os.Build;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
+import androidx.core.app.AppOpsManagerCompat;
 import androidx.core.content.PermissionChecker;
 
 /**
@@ -36,6 +39,32 @@ class AndroidPermissionService {
     return PermissionChecker.checkSelfPermission(context, permission);
   }
 
+  /**
+   * Resolves the state of several permissions at once. The granted flags of all of them are read
+   * with a single query to the package manager and only the granted permissions tied to an app op
+   * need an additional query each to check whether the app op is allowed.
+   *
+   * @return the state of each permission, following the order of the given array, as returned by
+   * {@link PermissionChecker#checkSelfPermission}
+   */
+  int[] checkSelfPermissions(@NonNull Context context, @NonNull String[] permissions) {
+    int[] permissionStates = new int[permissions.length];
+    PackageInfo packageInfo = getRequestedPermissionsInfo(context);
+
+    for (int i = 0; i < permissions.length; i++) {
+      String permission = permissions[i];
+      if (packageInfo == null) {
+        permissionStates[i] = checkSelfPermission(context, permission);
+      } else if (!isRequestedPermissionGranted(packageInfo, permission)) {
+        permissionStates[i] = PermissionChecker.PERMISSION_DENIED;
+      } else {
+        permissionStates[i] = checkPermissionAppOp(context, permission);
+      }
+    }
+
+    return permissionStates;
+  }
+
   /**
    * @see ActivityCompat#requestPermissions
    */
@@ -68,4 +97,53 @@ class AndroidPermissionService {
 
     return !shouldShowRequestPermissionRationale(activity, permission);
   }
+
+  /**
+   * Returns the package info with the permissions requested in the manifest and their granted
+   * flags or null if those flags are not available
+   */
+  @Nullable private PackageInfo getRequestedPermissionsInfo(@NonNull Context context) {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+      return null;
+    }
+
+    try {
+      PackageInfo packageInfo = context.getPackageManager()
+          .getPackageInfo(context.getPackageName(), PackageManager.GET_PERMISSIONS);
+      if (packageInfo.requestedPermissions == null
+          || packageInfo.requestedPermissionsFlags == null) {
+        return null;
+      }
+      return packageInfo;
+    } catch (PackageManager.NameNotFoundException ignored) {
+      return null;
+    }
+  }
+
+  private boolean isRequestedPermissionGranted(@NonNull PackageInfo packageInfo,
+      @NonNull String permission) {
+    String[] requestedPermissions = packageInfo.requestedPermissions;
+    for (int i = 0; i < requestedPermissions.length; i++) {
+      if (permission.equals(requestedPermissions[i])) {
+        return (packageInfo.requestedPermissionsFlags[i]
+            & PackageInfo.REQUESTED_PERMISSION_GRANTED) != 0;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Mirrors the app op check done by {@link PermissionChecker#checkSelfPermission} once the
+   * permission is known to be granted
+   */
+  private int checkPermissionAppOp(@NonNull Context context, @NonNull String permission) {
+    String op = AppOpsManagerCompat.permissionToOp(permission);
+    if (op == null) {
+      return PermissionChecker.PERMISSION_GRANTED;
+    }
+
+    int mode = AppOpsManagerCompat.noteProxyOpNoThrow(context, op, context.getPackageName());
+    return mode == AppOpsManagerCompat.MODE_ALLOWED ? PermissionChecker.PERMISSION_GRANTED
+        : PermissionChecker.PERMISSION_DENIED_APP_OP;
+  }
 }
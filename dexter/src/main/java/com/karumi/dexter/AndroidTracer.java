@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Emits the Dexter trace sections to the Android system trace, so they show up in Perfetto and
+ * systrace captures. Sections are only available from Jelly Bean MR2 and async slices from Q.
+ */
+final class AndroidTracer implements Tracer {
+
+  @Override public void beginSection(String name) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+      Trace.beginSection(name);
+    }
+  }
+
+  @Override public void endSection() {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+      Trace.endSection();
+    }
+  }
+
+  @Override public void beginAsyncSection(String name, int cookie) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+      Trace.beginAsyncSection(name, cookie);
+    }
+  }
+
+  @Override public void endAsyncSection(String name, int cookie) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+      Trace.endAsyncSection(name, cookie);
+    }
+  }
+}
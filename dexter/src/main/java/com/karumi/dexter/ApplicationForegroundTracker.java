@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Tracks the started activities of the application to detect when it returns to the foreground.
+ *
+ * The tracker is usually registered once some activity has already been started, so started
+ * activities are tracked one by one instead of counted, and stopping an activity started before
+ * the registration can not make the count drift. The application is in the background once no
+ * tracked activity is started, so switching between activities never reports a foreground
+ * transition.
+ */
+final class ApplicationForegroundTracker implements Application.ActivityLifecycleCallbacks {
+
+  private final Listener listener;
+  private boolean isRegistered = false;
+  private final Set<Activity> startedActivities =
+      Collections.newSetFromMap(new WeakHashMap<Activity, Boolean>());
+  private boolean isInBackground = false;
+
+  ApplicationForegroundTracker(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Registers the tracker on the application the given context belongs to. Subsequent calls are
+   * ignored once it has been registered.
+   */
+  synchronized void register(Context context) {
+    if (isRegistered || context == null) {
+      return;
+    }
+
+    Context applicationContext = context.getApplicationContext();
+    if (applicationContext instanceof Application) {
+      ((Application) applicationContext).registerActivityLifecycleCallbacks(this);
+      isRegistered = true;
+    }
+  }
+
+  @Override public void onActivityStarted(Activity activity) {
+    boolean isReturningToForeground = startedActivities.isEmpty() && isInBackground;
+    startedActivities.add(activity);
+    isInBackground = false;
+    if (isReturningToForeground) {
+      listener.onForeground();
+    }
+  }
+
+  @Override public void onActivityStopped(Activity activity) {
+    startedActivities.remove(activity);
+    if (startedActivities.isEmpty() && !activity.isChangingConfigurations()) {
+      isInBackground = true;
+    }
+  }
+
+  @Override public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+  }
+
+  @Override public void onActivityResumed(Activity activity) {
+  }
+
+  @Override public void onActivityPaused(Activity activity) {
+  }
+
+  @Override public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+  }
+
+  @Override public void onActivityDestroyed(Activity activity) {
+  }
+
+  interface Listener {
+    /**
+     * Method called on the main thread whenever the application returns to the foreground
+     */
+    void onForeground();
+  }
+}
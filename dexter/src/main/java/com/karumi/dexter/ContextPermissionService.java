@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Permission service resolving the states through the {@link PermissionStateCache} with the
+ * context Dexter has been called with. Failed queries are reported as denied permissions
+ */
+final class ContextPermissionService implements PermissionService {
+
+  private final PermissionStateCache permissionStateCache;
+  private WeakReference<Context> context = new WeakReference<>(null);
+
+  ContextPermissionService(PermissionStateCache permissionStateCache) {
+    this.permissionStateCache = permissionStateCache;
+  }
+
+  void setContext(Context context) {
+    this.context = new WeakReference<>(context);
+  }
+
+  /**
+   * Returns the context Dexter has been called with or null if it is gone
+   */
+  Context getContext() {
+    return context.get();
+  }
+
+  @Override public boolean isAvailable() {
+    return context.get() != null;
+  }
+
+  @Override public boolean areGranted(List<String> permissions) {
+    return permissionStateCache.areGranted(permissions);
+  }
+
+  @Override public void checkSelfPermissions(String[] permissions, int[] permissionStates) {
+    checkSelfPermissions(context.get(), permissions, permissionStates);
+  }
+
+  @Override public void onPermissionsGranted(Collection<String> permissions) {
+    permissionStateCache.onPermissionsGranted(permissions);
+  }
+
+  @Override public void onPermissionsDenied(Collection<String> permissions) {
+    permissionStateCache.onPermissionsDenied(permissions);
+  }
+
+  /*
+   * Workaround for RuntimeException of Parcel#readException. If the batched query fails every
+   * permission is checked on its own so only the failing ones are considered as denied.
+   *
+   * For additional details:
+   * https://github.com/Karumi/Dexter/issues/86
+   */
+  void checkSelfPermissions(Context context, String[] permissions, int[] permissionStates) {
+    Tracer tracer = Tracing.beginSection("Dexter#checkSelfPermissions");
+    try {
+      permissionStateCache.checkSelfPermissions(context, permissions, permissionStates);
+    } catch (RuntimeException ignored) {
+      for (int i = 0; i < permissions.length; i++) {
+        permissionStates[i] = checkSelfPermission(context, permissions[i]);
+      }
+    } finally {
+      Tracing.endSection(tracer);
+    }
+  }
+
+  int checkSelfPermission(Context context, String permission) {
+    Tracer tracer = Tracing.beginSection("Dexter#checkSelfPermission");
+    try {
+      return permissionStateCache.checkSelfPermission(context, permission);
+    } catch (RuntimeException ignored) {
+      return PackageManager.PERMISSION_DENIED;
+    } finally {
+      Tracing.endSection(tracer);
+    }
+  }
+}
@@ -18,15 +18,26 @@ package com.karumi.dexter;
 
 import android.app.Activity;
 import android.content.Context;
+import androidx.lifecycle.LifecycleOwner;
+import com.karumi.dexter.listener.DexterError;
 import com.karumi.dexter.listener.EmptyPermissionRequestErrorListener;
 import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.PermissionStatusObserver;
+import com.karumi.dexter.listener.event.DexterEventListener;
 import com.karumi.dexter.listener.multi.BaseMultiplePermissionsListener;
 import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.BasePermissionPipelineListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
 import com.karumi.dexter.listener.single.PermissionListener;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Class to simplify the management of Android runtime permissions
@@ -40,14 +51,20 @@ import java.util.Collections;
  */
 public final class Dexter
     implements DexterBuilder, DexterBuilder.Permission, DexterBuilder.SinglePermissionListener,
-    DexterBuilder.MultiPermissionListener {
+    DexterBuilder.MultiPermissionListener, DexterBuilder.PipelineListener {
 
-  private static DexterInstance instance;
+  private static volatile DexterInstance instance;
 
   private Collection<String> permissions;
   private MultiplePermissionsListener listener = new BaseMultiplePermissionsListener();
+  private PermissionPipeline pipeline;
+  private PermissionPipelineListener pipelineListener = new BasePermissionPipelineListener();
   private PermissionRequestErrorListener errorListener = new EmptyPermissionRequestErrorListener();
   private boolean shouldExecuteOnSameThread = false;
+  private Executor executor;
+  private RequestBackend requestBackend = RequestBackend.AUTOMATIC;
+  private LifecycleOwner lifecycleOwner;
+  private DexterEventListener eventListener = DexterEvents.NONE;
 
   private Dexter(Context context) {
     initialize(context);
@@ -83,6 +100,11 @@ public final class Dexter
     return this;
   }
 
+  @Override public DexterBuilder.PipelineListener withPipeline(PermissionPipeline pipeline) {
+    this.pipeline = pipeline;
+    return this;
+  }
+
   @Override public DexterBuilder withListener(PermissionListener listener) {
     this.listener = new MultiplePermissionsListenerToPermissionListenerAdapter(listener);
     return this;
@@ -93,29 +115,169 @@ public final class Dexter
     return this;
   }
 
+  @Override public DexterBuilder withListener(PermissionPipelineListener listener) {
+    this.pipelineListener = listener;
+    return this;
+  }
+
   @Override public DexterBuilder onSameThread() {
     shouldExecuteOnSameThread = true;
     return this;
   }
 
+  @Override public DexterBuilder onExecutor(Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
   @Override public DexterBuilder withErrorListener(PermissionRequestErrorListener errorListener) {
     this.errorListener = errorListener;
     return this;
   }
 
+  @Override public DexterBuilder withRequestBackend(RequestBackend requestBackend) {
+    this.requestBackend = requestBackend;
+    return this;
+  }
+
+  @Override public DexterBuilder withLifecycleOwner(LifecycleOwner lifecycleOwner) {
+    this.lifecycleOwner = lifecycleOwner;
+    return this;
+  }
+
+  /**
+   * Notifies the phases of the request, and of every stage of a pipeline, to the given listener
+   * besides the one configured with {@link #setEventListener(DexterEventListener)}
+   */
+  @Override public DexterBuilder withEventListener(DexterEventListener eventListener) {
+    this.eventListener = eventListener != null ? eventListener : DexterEvents.NONE;
+    return this;
+  }
+
   @Override public void check() {
     try {
       Thread thread = getThread();
-      instance.checkPermissions(listener, permissions, thread);
+      if (pipeline != null) {
+        instance.checkPipeline(pipeline, pipelineListener, thread, errorListener, requestBackend,
+            eventListener);
+      } else {
+        instance.checkPermissions(listener, permissions, thread, errorListener, requestBackend,
+            lifecycleOwner, eventListener);
+      }
     } catch (DexterException e) {
       errorListener.onError(e.error);
     }
   }
 
+  /**
+   * Checks the permissions returning a future completed with their report, or with the report of
+   * the whole pipeline. Listeners are still notified and cancelling the future cancels the request.
+   */
+  @Override public DexterFuture<MultiplePermissionsReport> checkAsync() {
+    return checkWithFuture(getThread(), lifecycleOwner);
+  }
+
+  /**
+   * Checks the permissions parking the calling thread until their report is ready. Listeners are
+   * still notified, on the executor passed to {@link #onExecutor(Executor)} or on a shared
+   * background thread otherwise, and the request is not bound to any lifecycle owner. It must not
+   * be called from a listener notified on a thread the results are delivered on, as it would
+   * wait for itself until the timeout elapses. Calls from the main thread or from the shared
+   * background thread are refused right away.
+   *
+   * @param timeout Maximum time to wait for the report. The request is cancelled if it elapses
+   * @param unit Unit of the timeout
+   * @return the report of the permissions, or of the whole pipeline, or null if the request
+   * failed or did not finish in time. The reason is notified to the error listener
+   * @throws InterruptedException if the calling thread is interrupted while waiting, in which case
+   * the request is cancelled
+   */
+  @Override public MultiplePermissionsReport checkBlocking(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    if (ThreadFactory.runningMainThread()) {
+      errorListener.onError(DexterError.BLOCKING_CHECK_ON_MAIN_THREAD);
+      return null;
+    }
+    if (executor == null && CallbackExecutor.isCurrentThread()) {
+      errorListener.onError(DexterError.BLOCKING_CHECK_ON_CALLBACK_THREAD);
+      return null;
+    }
+
+    Thread thread =
+        ThreadFactory.makeExecutorThread(executor != null ? executor : CallbackExecutor.get());
+    DexterFuture<MultiplePermissionsReport> future = checkWithFuture(thread, null);
+    try {
+      return future.get(timeout, unit);
+    } catch (ExecutionException e) {
+      return null;
+    } catch (TimeoutException e) {
+      if (future.cancel(false)) {
+        errorListener.onError(DexterError.REQUEST_TIMED_OUT);
+        return null;
+      }
+      return getCompleted(future);
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      throw e;
+    }
+  }
+
+  /*
+   * The request finished right after the timeout elapsed, so its report is returned instead of
+   * reporting a timeout to the error listener, which has already been notified if it failed.
+   */
+  private static MultiplePermissionsReport getCompleted(
+      DexterFuture<MultiplePermissionsReport> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+
+  private DexterFuture<MultiplePermissionsReport> checkWithFuture(Thread thread,
+      LifecycleOwner lifecycleOwner) {
+    final DexterInstance dexterInstance = instance;
+    DexterFuture<MultiplePermissionsReport> future = new DexterFuture<>();
+    try {
+      if (pipeline != null) {
+        FutureReportListener futureListener =
+            new FutureReportListener(pipelineListener, errorListener, future);
+        final PermissionPipelineSession session = dexterInstance.checkPipeline(pipeline,
+            futureListener, thread, futureListener, requestBackend, eventListener);
+        future.setCancellation(new Runnable() {
+          @Override public void run() {
+            dexterInstance.cancelPipeline(session);
+          }
+        });
+      } else {
+        FutureReportListener futureListener =
+            new FutureReportListener(listener, errorListener, future);
+        final DexterRequest request = dexterInstance.checkPermissions(futureListener, permissions,
+            thread, futureListener, requestBackend, lifecycleOwner, eventListener);
+        if (request != null) {
+          future.setCancellation(new Runnable() {
+            @Override public void run() {
+              dexterInstance.cancelRequest(request);
+            }
+          });
+        }
+      }
+    } catch (DexterException e) {
+      errorListener.onError(e.error);
+      future.fail(e);
+    }
+    return future;
+  }
+
   private Thread getThread() {
     Thread thread;
 
-    if (shouldExecuteOnSameThread) {
+    if (lifecycleOwner != null) {
+      thread = ThreadFactory.makeMainThread();
+    } else if (executor != null) {
+      thread = ThreadFactory.makeExecutorThread(executor);
+    } else if (shouldExecuteOnSameThread) {
       thread = ThreadFactory.makeSameThread();
     } else {
       thread = ThreadFactory.makeMainThread();
@@ -124,13 +286,156 @@ public final class Dexter
     return thread;
   }
 
+  /**
+   * Configures how many permission requests can wait while another one is ongoing. Requests are
+   * processed in the same order they were checked. By default there is no limit on the number of
+   * queued requests.
+   *
+   * @param capacity Maximum number of queued requests. Use zero to reject any request checked
+   * while another one is ongoing
+   * @param overflowPolicy Strategy applied when a request is checked and the queue is full
+   */
+  public static void setRequestQueueCapacity(int capacity, QueueOverflowPolicy overflowPolicy) {
+    getInstance().setRequestQueueCapacity(capacity, overflowPolicy);
+  }
+
+  /**
+   * Keeps the component used to show the system permission dialog alive for a while once every
+   * request has been processed. Requests checked during that time reuse it instead of starting a
+   * new one, which saves an activity start per request in flows asking for permissions one after
+   * another.
+   *
+   * @param lingerTime Time to keep the component alive. Zero, the default value, releases it as
+   * soon as the last request finishes
+   * @param unit Unit of the linger time
+   */
+  public static void setHostLingerTime(long lingerTime, TimeUnit unit) {
+    getInstance().setHostLingerTime(unit.toMillis(lingerTime));
+  }
+
+  /**
+   * Configures a listener notified every time any permission request moves from one phase to the
+   * next one, from being checked to having its report delivered, with the time each phase ended.
+   * Passing null removes it. Requests are not measured at all while there is no event listener.
+   */
+  public static void setEventListener(DexterEventListener eventListener) {
+    getInstance().setEventListener(eventListener);
+  }
+
+  /**
+   * Starts or stops aggregating metrics about every permission request: how many requests were
+   * started, completed, coalesced or failed, and how long it took to launch the activity used to
+   * request permissions, for the user to answer and to deliver the reports. Metrics are disabled
+   * by default and the ones aggregated so far are kept when they are disabled.
+   */
+  public static void setMetricsEnabled(boolean enabled) {
+    getInstance().setMetricsEnabled(enabled);
+  }
+
+  /**
+   * Starts or stops emitting trace sections around the work Dexter does on the calling threads,
+   * like querying the permission system, starting its activity or notifying listeners, and async
+   * slices keyed by request for the phases of every request, so they can be told apart in
+   * Perfetto or systrace captures. Async slices need Android Q. Tracing is disabled by default
+   * and costs a single field read per section while disabled.
+   */
+  public static void setTracingEnabled(boolean enabled) {
+    getInstance().setTracingEnabled(enabled);
+  }
+
+  /**
+   * Returns a snapshot of the metrics aggregated so far, along with how often the permission
+   * states were answered from the cache and how many queries were sent to the Android permission
+   * system. Taking a snapshot never blocks the requests being processed, so it can be exported
+   * periodically.
+   */
+  public static DexterMetrics getMetrics() {
+    return getInstance().getMetrics();
+  }
+
+  /**
+   * Prints the internal state of Dexter: whether a request is ongoing, the permissions pending to
+   * be resolved, the component used to request them, the queued requests and the last state
+   * transitions with their timestamps. Useful to find out why requests keep failing with
+   * {@link DexterError#REQUEST_ONGOING}, for instance from a dumpsys or debug screen hook.
+   */
+  public static void dump(PrintWriter writer) {
+    getInstance().dump(writer);
+  }
+
+  /**
+   * Returns the current status of a permission without requesting it nor showing any UI.
+   * Permissions known to be granted are answered without querying the Android permission system,
+   * so this method is cheap enough to be called in tight loops.
+   *
+   * @param permission One of the values found in {@link android.Manifest.permission}
+   */
+  public static PermissionStatus checkPermissionStatus(Context context, String permission) {
+    return getInstance().checkPermissionStatus(context, permission);
+  }
+
+  /**
+   * Returns whether a permission is granted without requesting it nor showing any UI
+   *
+   * @param permission One of the values found in {@link android.Manifest.permission}
+   */
+  public static boolean isPermissionGranted(Context context, String permission) {
+    return checkPermissionStatus(context, permission) == PermissionStatus.GRANTED;
+  }
+
+  /**
+   * Resolves the current status of several permissions at once without requesting them nor
+   * showing any UI. The permissions not known to be granted are resolved with a single query to
+   * the Android permission system.
+   *
+   * @param permissions Array of values found in {@link android.Manifest.permission}
+   * @param statuses Array the status of each permission is written into, following the order of
+   * the permissions array. It can be reused between calls to avoid allocations
+   */
+  public static void checkPermissionStatuses(Context context, String[] permissions,
+      PermissionStatus[] statuses) {
+    getInstance().checkPermissionStatuses(context, permissions, statuses);
+  }
+
+  /**
+   * Watches the status of the given permissions, for instance to find out they have been revoked
+   * from the system settings while the application was in the background. Every time the
+   * application returns to the foreground the status of all the watched permissions is resolved
+   * with a single query and the observer is notified on the main thread with the ones that
+   * changed since the last time. Calling this method again with the same observer adds more
+   * permissions to watch.
+   *
+   * @param permissions Collection of values found in {@link android.Manifest.permission}
+   */
+  public static void watchPermissions(Context context, Collection<String> permissions,
+      PermissionStatusObserver observer) {
+    getInstance().watchPermissions(context, permissions, observer);
+  }
+
+  /**
+   * Stops notifying the observer about the permissions it was watching
+   */
+  public static void unwatchPermissions(PermissionStatusObserver observer) {
+    getInstance().unwatchPermissions(observer);
+  }
+
   private static void initialize(Context context) {
-    if (instance == null) {
-      AndroidPermissionService androidPermissionService = new AndroidPermissionService();
-      IntentProvider intentProvider = new IntentProvider();
-      instance = new DexterInstance(context, androidPermissionService, intentProvider);
-    } else {
-      instance.setContext(context);
+    getInstance().setContext(context);
+  }
+
+  private static DexterInstance getInstance() {
+    DexterInstance currentInstance = instance;
+    if (currentInstance != null) {
+      return currentInstance;
+    }
+
+    synchronized (Dexter.class) {
+      if (instance == null) {
+        AndroidPermissionService androidPermissionService = new AndroidPermissionService();
+        IntentProvider intentProvider = new IntentProvider();
+        instance = new DexterInstance(null, androidPermissionService, intentProvider);
+      }
+      return instance;
     }
   }
 
@@ -162,6 +467,45 @@ public final class Dexter
     }
   }
 
+  /**
+   * Method called whenever the DexterFragment has been added to its activity and is ready to be
+   * used.
+   */
+  static void onFragmentReady(DexterFragment fragment) {
+    if (instance != null) {
+      instance.onFragmentReady(fragment);
+    }
+  }
+
+  /**
+   * Method called whenever the DexterFragment has been destroyed.
+   */
+  static void onFragmentDestroyed(DexterFragment fragment) {
+    if (instance != null) {
+      instance.onFragmentDestroyed(fragment);
+    }
+  }
+
+  /**
+   * Method called whenever a permission request host other than the DexterActivity or the
+   * DexterFragment is ready to be used.
+   */
+  static void onHostReady(PermissionRequestHost host) {
+    if (instance != null) {
+      instance.onHostReady(host);
+    }
+  }
+
+  /**
+   * Method called whenever a permission request host other than the DexterActivity or the
+   * DexterFragment has been destroyed.
+   */
+  static void onHostDestroyed(PermissionRequestHost host) {
+    if (instance != null) {
+      instance.onHostDestroyed(host);
+    }
+  }
+
   /**
    * Method called when all the permissions has been requested to the user
    *
@@ -177,8 +521,7 @@ public final class Dexter
        Refer to this commit message for a more detailed explanation of the issue.
      */
     if (instance != null) {
-      instance.onPermissionRequestGranted(grantedPermissions);
-      instance.onPermissionRequestDenied(deniedPermissions);
+      instance.onPermissionsRequested(grantedPermissions, deniedPermissions);
     }
   }
 }
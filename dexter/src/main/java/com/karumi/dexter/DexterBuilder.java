@@ -16,25 +16,45 @@
 
 package com.karumi.dexter;
 
+import androidx.lifecycle.LifecycleOwner;
 import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.event.DexterEventListener;
 import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
 import com.karumi.dexter.listener.single.PermissionListener;
 import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public interface DexterBuilder {
 
   DexterBuilder onSameThread();
 
+  DexterBuilder onExecutor(Executor executor);
+
   DexterBuilder withErrorListener(PermissionRequestErrorListener errorListener);
 
+  DexterBuilder withRequestBackend(RequestBackend requestBackend);
+
+  DexterBuilder withLifecycleOwner(LifecycleOwner lifecycleOwner);
+
+  DexterBuilder withEventListener(DexterEventListener eventListener);
+
   void check();
 
+  DexterFuture<MultiplePermissionsReport> checkAsync();
+
+  MultiplePermissionsReport checkBlocking(long timeout, TimeUnit unit)
+      throws InterruptedException;
+
   interface Permission {
     DexterBuilder.SinglePermissionListener withPermission(String permission);
 
     DexterBuilder.MultiPermissionListener withPermissions(String... permissions);
 
     DexterBuilder.MultiPermissionListener withPermissions(Collection<String> permissions);
+
+    DexterBuilder.PipelineListener withPipeline(PermissionPipeline pipeline);
   }
 
   interface SinglePermissionListener {
@@ -44,4 +64,8 @@ public interface DexterBuilder {
   interface MultiPermissionListener {
     DexterBuilder withListener(MultiplePermissionsListener listener);
   }
+
+  interface PipelineListener {
+    DexterBuilder withListener(PermissionPipelineListener listener);
+  }
 }
\ No newline at end of file
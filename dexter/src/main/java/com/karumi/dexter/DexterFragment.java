@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.os.Bundle;
+import androidx.fragment.app.Fragment;
+
+/**
+ * Headless retained fragment used to request permissions without starting the internal
+ * {@link DexterActivity}
+ */
+public final class DexterFragment extends Fragment {
+
+  static final String TAG = "com.karumi.dexter.DexterFragment";
+
+  @Override public void onCreate(Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    setRetainInstance(true);
+    Dexter.onFragmentReady(this);
+  }
+
+  @Override public void onDestroy() {
+    super.onDestroy();
+    Dexter.onFragmentDestroyed(this);
+  }
+
+  @Override public void onRequestPermissionsResult(int requestCode, String[] permissions,
+      int[] grantResults) {
+    if (getActivity() != null) {
+      PermissionsResultDispatcher.dispatch(getActivity(), permissions, grantResults);
+    }
+  }
+}
@@ -18,60 +18,156 @@ package com.karumi.dexter;
 
 import android.app.Activity;
 import android.content.Context;
-import android.content.Intent;
-import android.content.pm.PackageManager;
-import androidx.core.content.PermissionChecker;
-import com.karumi.dexter.listener.DexterError;
-import com.karumi.dexter.listener.PermissionDeniedResponse;
-import com.karumi.dexter.listener.PermissionGrantedResponse;
-import com.karumi.dexter.listener.PermissionRequest;
-import com.karumi.dexter.listener.multi.BaseMultiplePermissionsListener;
+import androidx.lifecycle.LifecycleOwner;
+import com.karumi.dexter.listener.EmptyPermissionRequestErrorListener;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.PermissionStatusObserver;
+import com.karumi.dexter.listener.event.DexterEventListener;
 import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
 import com.karumi.dexter.listener.single.PermissionListener;
-import java.lang.ref.WeakReference;
+import java.io.PrintWriter;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Inner implementation of a dexter instance holding the state of the permissions request
+ * Inner implementation of a dexter instance binding the {@link DexterStateMachine} holding the
+ * state of the permissions request to Android
  */
 final class DexterInstance {
 
-  private static final int PERMISSIONS_REQUEST_CODE = 42;
-  private static final MultiplePermissionsListener EMPTY_LISTENER =
-      new BaseMultiplePermissionsListener();
+  private static final PermissionRequestErrorListener EMPTY_ERROR_LISTENER =
+      new EmptyPermissionRequestErrorListener();
 
-  private WeakReference<Context> context;
   private final AndroidPermissionService androidPermissionService;
-  private final IntentProvider intentProvider;
-  private final Collection<String> pendingPermissions;
-  private final MultiplePermissionsReport multiplePermissionsReport;
-  private final AtomicBoolean isRequestingPermission;
-  private final AtomicBoolean rationaleAccepted;
-  private final AtomicBoolean isShowingNativeDialog;
-  private final Object pendingPermissionsMutex = new Object();
-
-  private Activity activity;
-  private MultiplePermissionsListener listener = EMPTY_LISTENER;
+  private final PermissionStateCache permissionStateCache;
+  private final ContextPermissionService permissionService;
+  private final ApplicationForegroundTracker foregroundTracker;
+  private final PermissionWatcher permissionWatcher;
+  private final PermissionRequester transparentActivityRequester;
+  private final PermissionRequester retainedFragmentRequester;
+  private final PermissionRequester activityResultRegistryRequester;
+  private final DexterStateMachine stateMachine;
+  private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+  private final Tracer androidTracer = new AndroidTracer();
+  private final DexterEventListener tracingEventListener = new TracingEventListener(androidTracer);
+
+  private DexterEventListener userEventListener = DexterEvents.NONE;
+  private boolean isMetricsEnabled = false;
+  private boolean isTracingEnabled = false;
 
   DexterInstance(Context context, AndroidPermissionService androidPermissionService,
       IntentProvider intentProvider) {
+    this(context, androidPermissionService, intentProvider, new MainThreadHostReleaseScheduler());
+  }
+
+  DexterInstance(Context context, AndroidPermissionService androidPermissionService,
+      IntentProvider intentProvider, HostReleaseScheduler hostReleaseScheduler) {
+    this(context, androidPermissionService, intentProvider, hostReleaseScheduler,
+        ThreadFactory.makeMainThread());
+  }
+
+  DexterInstance(Context context, AndroidPermissionService androidPermissionService,
+      IntentProvider intentProvider, HostReleaseScheduler hostReleaseScheduler,
+      Thread mainThread) {
     this.androidPermissionService = androidPermissionService;
-    this.intentProvider = intentProvider;
-    this.pendingPermissions = new TreeSet<>();
-    this.multiplePermissionsReport = new MultiplePermissionsReport();
-    this.isRequestingPermission = new AtomicBoolean();
-    this.rationaleAccepted = new AtomicBoolean();
-    this.isShowingNativeDialog = new AtomicBoolean();
+    this.permissionStateCache = new PermissionStateCache(androidPermissionService);
+    this.permissionService = new ContextPermissionService(permissionStateCache);
+    this.permissionWatcher = new PermissionWatcher(permissionStateCache);
+    this.foregroundTracker = new ApplicationForegroundTracker(
+        new ApplicationForegroundTracker.Listener() {
+          @Override public void onForeground() {
+            permissionStateCache.invalidate();
+            permissionWatcher.onForeground();
+          }
+        });
+    this.transparentActivityRequester = new TransparentActivityPermissionRequester(intentProvider);
+    this.retainedFragmentRequester = new RetainedFragmentPermissionRequester();
+    this.activityResultRegistryRequester =
+        new ActivityResultRegistryPermissionRequester(androidPermissionService);
+    this.stateMachine = new DexterStateMachine(permissionService, new HostLauncher() {
+      @Override public boolean launch(RequestBackend backend) {
+        return launchHost(backend);
+      }
+    }, hostReleaseScheduler, mainThread);
     setContext(context);
   }
 
   void setContext(Context context) {
-    this.context = new WeakReference<>(context);
+    permissionService.setContext(context);
+    foregroundTracker.register(context);
+  }
+
+  /**
+   * Returns the cache used to avoid querying the Android permission system for permissions known
+   * to be granted
+   */
+  PermissionStateCache getPermissionStateCache() {
+    return permissionStateCache;
+  }
+
+  /**
+   * @see DexterStateMachine#setRequestQueueCapacity(int, QueueOverflowPolicy)
+   */
+  void setRequestQueueCapacity(int capacity, QueueOverflowPolicy overflowPolicy) {
+    stateMachine.setRequestQueueCapacity(capacity, overflowPolicy);
+  }
+
+  /**
+   * @see DexterStateMachine#setHostLingerTime(long)
+   */
+  void setHostLingerTime(long lingerTimeMillis) {
+    stateMachine.setHostLingerTime(lingerTimeMillis);
+  }
+
+  /**
+   * Configures the listener notified about the phases of every request, on top of the one
+   * configured for each request
+   */
+  synchronized void setEventListener(DexterEventListener eventListener) {
+    userEventListener = eventListener != null ? eventListener : DexterEvents.NONE;
+    updateEventListener();
+  }
+
+  /**
+   * Starts or stops aggregating the events of every request into the metrics returned by
+   * {@link #getMetrics()}. Metrics aggregated so far are kept when they are disabled
+   */
+  synchronized void setMetricsEnabled(boolean enabled) {
+    isMetricsEnabled = enabled;
+    updateEventListener();
+  }
+
+  /**
+   * Returns a snapshot of the metrics aggregated so far without blocking any ongoing request
+   */
+  DexterMetrics getMetrics() {
+    return metricsRegistry.snapshot(permissionStateCache.getHitCount(),
+        permissionStateCache.getMissCount(), permissionStateCache.getQueryCount());
+  }
+
+  /**
+   * Starts or stops emitting trace sections around the work done by Dexter and async slices for
+   * the phases of every request
+   */
+  synchronized void setTracingEnabled(boolean enabled) {
+    isTracingEnabled = enabled;
+    Tracing.setTracer(enabled ? androidTracer : null);
+    updateEventListener();
+  }
+
+  private void updateEventListener() {
+    DexterEventListener internalEventListener = DexterEvents.combine(
+        isMetricsEnabled ? metricsRegistry : DexterEvents.NONE,
+        isTracingEnabled ? tracingEventListener : DexterEvents.NONE);
+    stateMachine.setEventListener(DexterEvents.combine(userEventListener, internalEventListener));
+  }
+
+  /**
+   * @see DexterStateMachine#dump(PrintWriter)
+   */
+  void dump(PrintWriter writer) {
+    stateMachine.dump(writer);
   }
 
   /**
@@ -82,305 +178,296 @@ final class DexterInstance {
    * @param thread thread the Listener methods will be called on
    */
   void checkPermission(PermissionListener listener, String permission, Thread thread) {
-    checkSinglePermission(listener, permission, thread);
+    MultiplePermissionsListener adapter =
+        new MultiplePermissionsListenerToPermissionListenerAdapter(listener);
+    stateMachine.checkPermissions(adapter, Collections.singletonList(permission), thread,
+        EMPTY_ERROR_LISTENER, RequestBackend.AUTOMATIC, DexterEvents.NONE, true);
   }
 
   /**
    * Checks the state of a collection of permissions reporting their state to the listener when all
-   * of them are resolved
+   * of them are resolved. If another request is ongoing this one is queued and will be processed
+   * as soon as all the previous ones are completed
    *
    * @param listener The class that will be reported when the state of all the permissions is ready
    * @param permissions Array of values found in {@link android.Manifest.permission}
    * @param thread thread the Listener methods will be called on
+   * @param errorListener The class that will be reported if the request is discarded from the
+   * queue of pending requests
    */
   void checkPermissions(MultiplePermissionsListener listener, Collection<String> permissions,
-      Thread thread) {
-    checkMultiplePermissions(listener, permissions, thread);
+      Thread thread, PermissionRequestErrorListener errorListener) {
+    checkPermissions(listener, permissions, thread, errorListener, RequestBackend.AUTOMATIC);
   }
 
   /**
-   * Method called whenever the inner activity has been created or restarted and is ready to be
-   * used.
+   * Checks the state of a collection of permissions reporting their state to the listener when all
+   * of them are resolved. If another request is ongoing this one is queued and will be processed
+   * as soon as all the previous ones are completed
+   *
+   * @param listener The class that will be reported when the state of all the permissions is ready
+   * @param permissions Array of values found in {@link android.Manifest.permission}
+   * @param thread thread the Listener methods will be called on
+   * @param errorListener The class that will be reported if the request is discarded from the
+   * queue of pending requests
+   * @param backend Component used to show the system permission dialog if needed
    */
-  void onActivityReady(Activity activity) {
-    this.activity = activity;
+  void checkPermissions(MultiplePermissionsListener listener, Collection<String> permissions,
+      Thread thread, PermissionRequestErrorListener errorListener, RequestBackend backend) {
+    stateMachine.checkPermissions(listener, permissions, thread, errorListener, backend,
+        DexterEvents.NONE, true);
+  }
 
-    PermissionStates permissionStates = null;
-    synchronized (pendingPermissionsMutex) {
-      if (activity != null) {
-        permissionStates = getPermissionStates(pendingPermissions);
-      }
+  /**
+   * Checks the state of a collection of permissions bound to the lifecycle of the given owner.
+   * The listener is only notified while the owner is started and the request is cancelled once
+   * the owner is destroyed
+   *
+   * @param listener The class that will be reported when the state of all the permissions is ready
+   * @param permissions Array of values found in {@link android.Manifest.permission}
+   * @param thread thread the Listener methods will be called on, it has to be the main one
+   * @param errorListener The class that will be reported if the request is discarded from the
+   * queue of pending requests
+   * @param backend Component used to show the system permission dialog if needed
+   * @param lifecycleOwner Owner whose lifecycle the request is bound to, or null to not bind it
+   * @return the request, that can be passed to {@link #cancelRequest(DexterRequest)}, or null if
+   * every permission was known to be granted and the listener has already been notified
+   */
+  DexterRequest checkPermissions(MultiplePermissionsListener listener,
+      Collection<String> permissions, Thread thread, PermissionRequestErrorListener errorListener,
+      RequestBackend backend, LifecycleOwner lifecycleOwner) {
+    return checkPermissions(listener, permissions, thread, errorListener, backend,
+        lifecycleOwner, DexterEvents.NONE);
+  }
+
+  /**
+   * Checks the state of a collection of permissions bound to the lifecycle of the given owner,
+   * notifying the phases of the request to the event listener besides the global one
+   *
+   * @see #checkPermissions(MultiplePermissionsListener, Collection, Thread,
+   * PermissionRequestErrorListener, RequestBackend, LifecycleOwner)
+   */
+  DexterRequest checkPermissions(MultiplePermissionsListener listener,
+      Collection<String> permissions, Thread thread, PermissionRequestErrorListener errorListener,
+      RequestBackend backend, LifecycleOwner lifecycleOwner, DexterEventListener eventListener) {
+    if (lifecycleOwner == null) {
+      return stateMachine.checkPermissions(listener, permissions, thread, errorListener, backend,
+          eventListener, true);
     }
 
-    if (permissionStates != null) {
-      handleDeniedPermissions(permissionStates.getDeniedPermissions());
-      updatePermissionsAsDenied(permissionStates.getImpossibleToGrantPermissions());
-      updatePermissionsAsGranted(permissionStates.getGrantedPermissions());
+    LifecycleBoundMultiplePermissionsListener lifecycleBoundListener =
+        new LifecycleBoundMultiplePermissionsListener(listener, lifecycleOwner, this);
+    DexterRequest request = stateMachine.checkPermissions(lifecycleBoundListener, permissions,
+        thread, errorListener, backend, eventListener, false);
+    if (request != null) {
+      lifecycleBoundListener.bind(request, thread);
     }
+    return request;
   }
 
   /**
-   * Method called whenever the inner activity has been destroyed.
-   * @param oldActivity the DexterActivity that was destroyed
+   * @see DexterStateMachine#cancelRequest(DexterRequest)
    */
-  void onActivityDestroyed(Activity oldActivity) {
-    if (activity == oldActivity) {
-      activity = null;
-      isRequestingPermission.set(false);
-      rationaleAccepted.set(false);
-      isShowingNativeDialog.set(false);
-      listener = EMPTY_LISTENER;
-    }
+  void cancelRequest(DexterRequest request) {
+    stateMachine.cancelRequest(request);
   }
 
   /**
-   * Method called whenever the permissions has been granted by the user
+   * Checks the state of a collection of permissions reporting their state to the listener when all
+   * of them are resolved
+   *
+   * @param listener The class that will be reported when the state of all the permissions is ready
+   * @param permissions Array of values found in {@link android.Manifest.permission}
+   * @param thread thread the Listener methods will be called on
    */
-  void onPermissionRequestGranted(Collection<String> permissions) {
-    updatePermissionsAsGranted(permissions);
+  void checkPermissions(MultiplePermissionsListener listener, Collection<String> permissions,
+      Thread thread) {
+    checkPermissions(listener, permissions, thread, EMPTY_ERROR_LISTENER);
   }
 
   /**
-   * Method called whenever the permissions has been denied by the user
+   * Checks the stages of a pipeline one after another. Each stage is started as soon as the
+   * previous one finishes, before any other queued request, and reuses the same host
+   *
+   * @param pipeline Stages to check
+   * @param listener The class that will be reported when every stage and the whole pipeline are
+   * resolved
+   * @param thread thread the Listener methods will be called on
+   * @param errorListener The class that will be reported if the pipeline is discarded from the
+   * queue of pending requests
+   * @param backend Component used to show the system permission dialog if needed
+   * @return the session running the pipeline, that can be passed to
+   * {@link #cancelPipeline(PermissionPipelineSession)}
    */
-  void onPermissionRequestDenied(Collection<String> permissions) {
-    updatePermissionsAsDenied(permissions);
+  PermissionPipelineSession checkPipeline(PermissionPipeline pipeline,
+      PermissionPipelineListener listener, Thread thread,
+      PermissionRequestErrorListener errorListener, RequestBackend backend) {
+    return checkPipeline(pipeline, listener, thread, errorListener, backend, DexterEvents.NONE);
   }
 
   /**
-   * Method called when the user has been informed with a rationale and agrees to continue
-   * with the permission request process
+   * @see DexterStateMachine#checkPipeline(PermissionPipeline, PermissionPipelineListener, Thread,
+   * PermissionRequestErrorListener, RequestBackend, DexterEventListener)
    */
-  void onContinuePermissionRequest() {
-    rationaleAccepted.set(true);
-    requestPermissionsToSystem(pendingPermissions);
+  PermissionPipelineSession checkPipeline(PermissionPipeline pipeline,
+      PermissionPipelineListener listener, Thread thread,
+      PermissionRequestErrorListener errorListener, RequestBackend backend,
+      DexterEventListener eventListener) {
+    return stateMachine.checkPipeline(pipeline, listener, thread, errorListener, backend,
+        eventListener);
   }
 
   /**
-   * Method called when the user has been informed with a rationale and decides to cancel
-   * the permission request process
+   * @see DexterStateMachine#cancelPipeline(PermissionPipelineSession)
    */
-  void onCancelPermissionRequest() {
-    rationaleAccepted.set(false);
-    updatePermissionsAsDenied(pendingPermissions);
+  void cancelPipeline(PermissionPipelineSession session) {
+    stateMachine.cancelPipeline(session);
   }
 
   /**
-   * Starts the native request permissions process
+   * Returns the current status of a permission without requesting it nor showing any UI
    */
-  private void requestPermissionsToSystem(Collection<String> permissions) {
-    if (!isShowingNativeDialog.get()) {
-      androidPermissionService.requestPermissions(activity,
-          permissions.toArray(new String[0]), PERMISSIONS_REQUEST_CODE);
-    }
-    isShowingNativeDialog.set(true);
-  }
-
-  private PermissionStates getPermissionStates(Collection<String> pendingPermissions) {
-    PermissionStates permissionStates = new PermissionStates();
-
-    for (String permission : pendingPermissions) {
-      int permissionState = checkSelfPermission(activity, permission);
-
-      switch (permissionState) {
-        case PermissionChecker.PERMISSION_DENIED_APP_OP:
-          permissionStates.addImpossibleToGrantPermission(permission);
-          break;
-        case PermissionChecker.PERMISSION_DENIED:
-          permissionStates.addDeniedPermission(permission);
-          break;
-        case PermissionChecker.PERMISSION_GRANTED:
-        default:
-          permissionStates.addGrantedPermission(permission);
-          break;
-      }
-    }
-
-    return permissionStates;
+  PermissionStatus checkPermissionStatus(Context context, String permission) {
+    return PermissionStatus.from(permissionService.checkSelfPermission(context, permission));
   }
 
-  /*
-   * Workaround for RuntimeException of Parcel#readException.
+  /**
+   * Resolves the current status of several permissions at once without requesting them nor
+   * showing any UI
    *
-   * For additional details:
-   * https://github.com/Karumi/Dexter/issues/86
-   */
-  private int checkSelfPermission(Activity activity, String permission) {
-    try {
-      return androidPermissionService.checkSelfPermission(activity, permission);
-    } catch (RuntimeException ignored) {
-      return PackageManager.PERMISSION_DENIED;
-    }
-  }
-
-  private void startTransparentActivityIfNeeded() {
-    Context context = this.context.get();
-    if (context == null) {
-      return;
+   * @param statuses Array the status of each permission is written into, following the order of
+   * the permissions array
+   */
+  void checkPermissionStatuses(Context context, String[] permissions,
+      PermissionStatus[] statuses) {
+    if (statuses.length < permissions.length) {
+      throw new IllegalArgumentException("The statuses array is smaller than the permissions one");
     }
 
-    Intent intent = intentProvider.get(context, DexterActivity.class);
-    if (!(context instanceof Activity)) {
-      intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+    int[] permissionStates = new int[permissions.length];
+    permissionService.checkSelfPermissions(context, permissions, permissionStates);
+    for (int i = 0; i < permissions.length; i++) {
+      statuses[i] = PermissionStatus.from(permissionStates[i]);
     }
-    context.startActivity(intent);
   }
 
-  private void handleDeniedPermissions(Collection<String> permissions) {
-    if (permissions.isEmpty()) {
-      return;
-    }
-
-    List<PermissionRequest> shouldShowRequestRationalePermissions = new LinkedList<>();
-
-    for (String permission : permissions) {
-      if (androidPermissionService.shouldShowRequestPermissionRationale(activity, permission)) {
-        shouldShowRequestRationalePermissions.add(new PermissionRequest(permission));
-      }
-    }
-
-    if (shouldShowRequestRationalePermissions.isEmpty()) {
-      requestPermissionsToSystem(permissions);
-    } else if (!rationaleAccepted.get()) {
-      PermissionRationaleToken permissionToken = new PermissionRationaleToken(this);
-      listener.onPermissionRationaleShouldBeShown(shouldShowRequestRationalePermissions,
-          permissionToken);
-    }
+  /**
+   * Watches the status of the given permissions notifying the observer with the ones that changed
+   * every time the application returns to the foreground
+   */
+  void watchPermissions(Context context, Collection<String> permissions,
+      PermissionStatusObserver observer) {
+    foregroundTracker.register(context);
+    permissionWatcher.watch(context, permissions, observer);
   }
 
-  private void updatePermissionsAsGranted(Collection<String> permissions) {
-    for (String permission : permissions) {
-      PermissionGrantedResponse response = PermissionGrantedResponse.from(permission);
-      multiplePermissionsReport.addGrantedPermissionResponse(response);
-    }
-    onPermissionsChecked(permissions);
+  /**
+   * Stops notifying the observer about the permissions it was watching
+   */
+  void unwatchPermissions(PermissionStatusObserver observer) {
+    permissionWatcher.unwatch(observer);
   }
 
-  private void updatePermissionsAsDenied(Collection<String> permissions) {
-    for (String permission : permissions) {
-      PermissionDeniedResponse response = PermissionDeniedResponse.from(permission,
-          androidPermissionService.isPermissionPermanentlyDenied(activity, permission));
-      multiplePermissionsReport.addDeniedPermissionResponse(response);
-    }
-    onPermissionsChecked(permissions);
+  /**
+   * Method called whenever the inner activity has been created or restarted and is ready to be
+   * used.
+   */
+  void onActivityReady(Activity activity) {
+    onHostReady(activity != null ? newActivityHost(activity) : null);
   }
 
-  private void onPermissionsChecked(Collection<String> permissions) {
-    if (pendingPermissions.isEmpty()) {
-      return;
-    }
-
-    synchronized (pendingPermissionsMutex) {
-      pendingPermissions.removeAll(permissions);
-      if (pendingPermissions.isEmpty()) {
-        // Just in case heck to avoid NPE if the OS destroys the activity before
-        // the permission is checked. Issues #243 and #221
-        if (activity != null) {
-          activity.finish();
-        }
-        isRequestingPermission.set(false);
-        rationaleAccepted.set(false);
-        isShowingNativeDialog.set(false);
-        MultiplePermissionsListener currentListener = listener;
-        listener = EMPTY_LISTENER;
-        currentListener.onPermissionsChecked(multiplePermissionsReport);
-      }
-    }
+  /**
+   * Method called whenever the inner activity has been destroyed.
+   * @param oldActivity the DexterActivity that was destroyed
+   */
+  void onActivityDestroyed(Activity oldActivity) {
+    onHostDestroyed(newActivityHost(oldActivity));
   }
 
-  private void checkNoDexterRequestOngoing() {
-    if (isRequestingPermission.getAndSet(true)) {
-      throw new DexterException("Only one Dexter request at a time is allowed",
-          DexterError.REQUEST_ONGOING);
-    }
+  /**
+   * Method called whenever the headless fragment has been added to its activity and is ready to be
+   * used.
+   */
+  void onFragmentReady(DexterFragment fragment) {
+    onHostReady(new FragmentPermissionRequestHost(fragment, androidPermissionService));
   }
 
-  private void checkRequestSomePermission(Collection<String> permissions) {
-    if (permissions.isEmpty()) {
-      throw new DexterException("Dexter has to be called with at least one permission",
-          DexterError.NO_PERMISSIONS_REQUESTED);
-    }
+  /**
+   * Method called whenever the headless fragment has been destroyed.
+   */
+  void onFragmentDestroyed(DexterFragment fragment) {
+    onHostDestroyed(new FragmentPermissionRequestHost(fragment, androidPermissionService));
   }
 
-  private void checkSinglePermission(PermissionListener listener, String permission,
-      Thread thread) {
-    MultiplePermissionsListener adapter =
-        new MultiplePermissionsListenerToPermissionListenerAdapter(listener);
-    checkMultiplePermissions(adapter, Collections.singleton(permission), thread);
+  /**
+   * Method called whenever a component able to request permissions is ready to be used.
+   */
+  void onHostReady(PermissionRequestHost host) {
+    stateMachine.onHostReady(host);
   }
 
-  private void checkMultiplePermissions(final MultiplePermissionsListener listener,
-      final Collection<String> permissions, Thread thread) {
-    checkNoDexterRequestOngoing();
-    checkRequestSomePermission(permissions);
-
-    if (context.get() == null) {
-      return;
-    }
-
-    if (activity != null && activity.isFinishing()) {
-      onActivityDestroyed(activity);
-    }
-
-    pendingPermissions.clear();
-    pendingPermissions.addAll(permissions);
-    multiplePermissionsReport.clear();
-    this.listener = new MultiplePermissionListenerThreadDecorator(listener, thread);
-    if (isEveryPermissionGranted(permissions, context.get())) {
-      thread.execute(new Runnable() {
-        @Override public void run() {
-          MultiplePermissionsReport report = new MultiplePermissionsReport();
-          for (String permission : permissions) {
-            report.addGrantedPermissionResponse(PermissionGrantedResponse.from(permission));
-          }
-          isRequestingPermission.set(false);
-          listener.onPermissionsChecked(report);
-          DexterInstance.this.listener = EMPTY_LISTENER;
-        }
-      });
-    } else {
-      startTransparentActivityIfNeeded();
-    }
-    thread.loop();
+  /**
+   * Method called whenever a component able to request permissions has been destroyed.
+   * @param oldHost the host that was destroyed
+   */
+  void onHostDestroyed(PermissionRequestHost oldHost) {
+    stateMachine.onHostDestroyed(oldHost);
   }
 
-  private boolean isEveryPermissionGranted(Collection<String> permissions, Context context) {
-    for (String permission : permissions) {
-      int permissionState = androidPermissionService.checkSelfPermission(context, permission);
-      if (permissionState != PermissionChecker.PERMISSION_GRANTED) {
-        return false;
-      }
-    }
-    return true;
+  /**
+   * Method called with the result of the system permission dialog
+   */
+  void onPermissionsRequested(Collection<String> grantedPermissions,
+      Collection<String> deniedPermissions) {
+    stateMachine.onPermissionsRequested(grantedPermissions, deniedPermissions);
   }
 
-  private final class PermissionStates {
-    private final Collection<String> deniedPermissions = new LinkedList<>();
-    private final Collection<String> impossibleToGrantPermissions = new LinkedList<>();
-    private final Collection<String> grantedPermissions = new LinkedList<>();
-
-    private void addDeniedPermission(String permission) {
-      deniedPermissions.add(permission);
-    }
+  /**
+   * Method called whenever the permissions has been granted by the user
+   */
+  void onPermissionRequestGranted(Collection<String> permissions) {
+    stateMachine.onPermissionRequestGranted(permissions);
+  }
 
-    private void addImpossibleToGrantPermission(String permission) {
-      impossibleToGrantPermissions.add(permission);
-    }
+  /**
+   * Method called whenever the permissions has been denied by the user
+   */
+  void onPermissionRequestDenied(Collection<String> permissions) {
+    stateMachine.onPermissionRequestDenied(permissions);
+  }
 
-    private void addGrantedPermission(String permission) {
-      grantedPermissions.add(permission);
-    }
+  private ActivityPermissionRequestHost newActivityHost(Activity activity) {
+    return new ActivityPermissionRequestHost(activity, androidPermissionService);
+  }
 
-    private Collection<String> getDeniedPermissions() {
-      return deniedPermissions;
+  private boolean launchHost(RequestBackend backend) {
+    Context context = permissionService.getContext();
+    if (context == null) {
+      return false;
     }
 
-    private Collection<String> getGrantedPermissions() {
-      return grantedPermissions;
-    }
+    getRequester(backend, context).start(context);
+    return true;
+  }
 
-    public Collection<String> getImpossibleToGrantPermissions() {
-      return impossibleToGrantPermissions;
+  /**
+   * Returns the requester matching the backend or the transparent activity one if that backend
+   * can not be used with the given context
+   */
+  private PermissionRequester getRequester(RequestBackend backend, Context context) {
+    PermissionRequester requester;
+    switch (backend) {
+      case AUTOMATIC:
+      case RETAINED_FRAGMENT:
+        requester = retainedFragmentRequester;
+        break;
+      case ACTIVITY_RESULT_REGISTRY:
+        requester = activityResultRegistryRequester;
+        break;
+      case TRANSPARENT_ACTIVITY:
+      default:
+        return transparentActivityRequester;
     }
+    return requester.canStartFrom(context) ? requester : transparentActivityRequester;
   }
 }
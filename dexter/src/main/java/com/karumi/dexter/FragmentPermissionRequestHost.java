@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+
+/**
+ * Host requesting the permissions through a {@link DexterFragment} attached to the caller activity
+ */
+final class FragmentPermissionRequestHost implements PermissionRequestHost {
+
+  private final DexterFragment fragment;
+  private final AndroidPermissionService androidPermissionService;
+  private boolean isFinishing = false;
+
+  FragmentPermissionRequestHost(DexterFragment fragment,
+      AndroidPermissionService androidPermissionService) {
+    this.fragment = fragment;
+    this.androidPermissionService = androidPermissionService;
+  }
+
+  @Override public void requestPermissions(final String[] permissions, final int requestCode) {
+    ThreadFactory.makeMainThread().execute(new Runnable() {
+      @Override public void run() {
+        if (fragment.isAdded()) {
+          fragment.requestPermissions(permissions, requestCode);
+        }
+      }
+    });
+  }
+
+  @Override public boolean shouldShowRequestPermissionRationale(String permission) {
+    return androidPermissionService.shouldShowRequestPermissionRationale(fragment.getActivity(),
+        permission);
+  }
+
+  @Override public boolean isPermissionPermanentlyDenied(String permission) {
+    return androidPermissionService.isPermissionPermanentlyDenied(fragment.getActivity(),
+        permission);
+  }
+
+  @Override public boolean isFinishing() {
+    FragmentActivity activity = fragment.getActivity();
+    return isFinishing || activity == null || activity.isFinishing();
+  }
+
+  @Override public void finish() {
+    isFinishing = true;
+    ThreadFactory.makeMainThread().execute(new Runnable() {
+      @Override public void run() {
+        FragmentManager fragmentManager = fragment.getFragmentManager();
+        if (fragmentManager != null && !fragmentManager.isDestroyed()) {
+          fragmentManager.beginTransaction().remove(fragment).commitAllowingStateLoss();
+        }
+      }
+    });
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FragmentPermissionRequestHost that = (FragmentPermissionRequestHost) o;
+    return fragment == that.fragment;
+  }
+
+  @Override public int hashCode() {
+    return System.identityHashCode(fragment);
+  }
+}
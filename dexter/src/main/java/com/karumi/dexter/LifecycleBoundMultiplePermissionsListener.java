@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import com.karumi.dexter.listener.PermissionDeniedResponse;
+import com.karumi.dexter.listener.PermissionGrantedResponse;
+import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Listener bound to the lifecycle of a {@link LifecycleOwner}. Updates are buffered until the
+ * owner is started and, once it is destroyed, the wrapped listener is released and the request is
+ * cancelled. The owner is released too once the request finishes, so a request still held by
+ * Dexter does not leak it. It must be notified on the main thread.
+ */
+final class LifecycleBoundMultiplePermissionsListener
+    implements StreamingMultiplePermissionsListener, LifecycleEventObserver {
+
+  private final DexterInstance dexterInstance;
+  private final List<Runnable> pendingUpdates = new LinkedList<>();
+  private LifecycleOwner lifecycleOwner;
+  private MultiplePermissionsListener listener;
+  private DexterRequest request;
+  private boolean isCompleted = false;
+
+  LifecycleBoundMultiplePermissionsListener(MultiplePermissionsListener listener,
+      LifecycleOwner lifecycleOwner, DexterInstance dexterInstance) {
+    this.listener = listener;
+    this.lifecycleOwner = lifecycleOwner;
+    this.dexterInstance = dexterInstance;
+  }
+
+  /**
+   * Starts observing the lifecycle owner so the request is cancelled once it is destroyed
+   *
+   * @param thread Main thread the lifecycle owner is observed from
+   */
+  void bind(DexterRequest request, Thread thread) {
+    this.request = request;
+    thread.execute(new Runnable() {
+      @Override public void run() {
+        if (isCompleted) {
+          return;
+        }
+
+        Lifecycle lifecycle = lifecycleOwner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+          onOwnerDestroyed();
+        } else {
+          lifecycle.addObserver(LifecycleBoundMultiplePermissionsListener.this);
+        }
+      }
+    });
+  }
+
+  @Override public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+    if (event == Lifecycle.Event.ON_START) {
+      deliverPendingUpdates();
+    } else if (event == Lifecycle.Event.ON_DESTROY) {
+      onOwnerDestroyed();
+    }
+  }
+
+  @Override public void onPermissionGranted(final PermissionGrantedResponse response) {
+    deliver(new Runnable() {
+      @Override public void run() {
+        if (listener instanceof StreamingMultiplePermissionsListener) {
+          ((StreamingMultiplePermissionsListener) listener).onPermissionGranted(response);
+        }
+      }
+    });
+  }
+
+  @Override public void onPermissionDenied(final PermissionDeniedResponse response) {
+    deliver(new Runnable() {
+      @Override public void run() {
+        if (listener instanceof StreamingMultiplePermissionsListener) {
+          ((StreamingMultiplePermissionsListener) listener).onPermissionDenied(response);
+        }
+      }
+    });
+  }
+
+  @Override public void onPermissionsChecked(final MultiplePermissionsReport report) {
+    deliver(new Runnable() {
+      @Override public void run() {
+        listener.onPermissionsChecked(report);
+        release();
+      }
+    });
+  }
+
+  @Override public void onPermissionRationaleShouldBeShown(
+      final List<PermissionRequest> permissions, final PermissionToken token) {
+    deliver(new Runnable() {
+      @Override public void run() {
+        listener.onPermissionRationaleShouldBeShown(permissions, token);
+      }
+    });
+  }
+
+  private void deliver(Runnable update) {
+    if (listener == null) {
+      return;
+    }
+
+    if (lifecycleOwner.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+      update.run();
+    } else {
+      pendingUpdates.add(update);
+    }
+  }
+
+  private void deliverPendingUpdates() {
+    while (listener != null && !pendingUpdates.isEmpty()) {
+      pendingUpdates.remove(0).run();
+    }
+  }
+
+  private void onOwnerDestroyed() {
+    MultiplePermissionsListener currentListener = listener;
+    release();
+    dexterInstance.cancelRequest(request);
+    if (currentListener instanceof FutureReportListener) {
+      ((FutureReportListener) currentListener).onRequestCancelled();
+    }
+  }
+
+  private void release() {
+    isCompleted = true;
+    listener = null;
+    pendingUpdates.clear();
+    if (lifecycleOwner != null) {
+      lifecycleOwner.getLifecycle().removeObserver(this);
+      lifecycleOwner = null;
+    }
+  }
+}
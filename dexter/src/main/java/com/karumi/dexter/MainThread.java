@@ -24,6 +24,8 @@ import android.os.Looper;
  */
 final class MainThread implements Thread {
 
+  private static volatile Handler handler;
+
   MainThread() {
   }
 
@@ -31,11 +33,21 @@ final class MainThread implements Thread {
     if (runningMainThread()) {
       runnable.run();
     } else {
-      new Handler(Looper.getMainLooper()).post(runnable);
+      getHandler().post(runnable);
     }
   }
 
-  @Override public void loop() {
+  @Override public boolean isCurrentThread() {
+    return runningMainThread();
+  }
+
+  private static Handler getHandler() {
+    Handler currentHandler = handler;
+    if (currentHandler == null) {
+      currentHandler = new Handler(Looper.getMainLooper());
+      handler = currentHandler;
+    }
+    return currentHandler;
   }
 
   private static boolean runningMainThread() {
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Schedules the release of permission request hosts on the Android main thread
+ */
+final class MainThreadHostReleaseScheduler implements HostReleaseScheduler {
+
+  private Handler handler;
+
+  @Override public void schedule(Runnable release, long delayMillis) {
+    getHandler().postDelayed(release, delayMillis);
+  }
+
+  private synchronized Handler getHandler() {
+    if (handler == null) {
+      handler = new Handler(Looper.getMainLooper());
+    }
+    return handler;
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+
+/**
+ * Backend able to start a {@link PermissionRequestHost}. Hosts have to notify the
+ * {@link DexterInstance} when they are ready to be used and when they are destroyed.
+ */
+interface PermissionRequester {
+
+  /**
+   * Returns whether a host can be started from the given context
+   */
+  boolean canStartFrom(Context context);
+
+  void start(Context context);
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.core.content.PermissionChecker;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide cache of the permissions known to be granted, used to avoid querying the Android
+ * permission system every time a permission is checked.
+ *
+ * Only granted states are cached. Android kills the process whenever a runtime permission is
+ * revoked, so a granted state can not change behind our back, while a denied one can be granted
+ * at any moment from the system settings or by code not using Dexter. The cache is invalidated
+ * anyway every time the application returns to the foreground.
+ */
+final class PermissionStateCache implements GrantedRequestFastPath.GrantedPermissions {
+
+  private final AndroidPermissionService androidPermissionService;
+  private final Set<String> grantedPermissions =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong queryCount = new AtomicLong();
+
+  PermissionStateCache(AndroidPermissionService androidPermissionService) {
+    this.androidPermissionService = androidPermissionService;
+  }
+
+  /**
+   * Returns the state of the permission, querying the Android permission system only if it is not
+   * known to be granted
+   *
+   * @see PermissionChecker#checkSelfPermission
+   */
+  int checkSelfPermission(@NonNull Context context, @NonNull String permission) {
+    if (grantedPermissions.contains(permission)) {
+      hitCount.incrementAndGet();
+      return PermissionChecker.PERMISSION_GRANTED;
+    }
+
+    missCount.incrementAndGet();
+    queryCount.incrementAndGet();
+    int permissionState = androidPermissionService.checkSelfPermission(context, permission);
+    if (permissionState == PermissionChecker.PERMISSION_GRANTED) {
+      grantedPermissions.add(permission);
+    }
+    return permissionState;
+  }
+
+  /**
+   * Returns whether every permission is known to be granted without querying the Android
+   * permission system
+   */
+  @Override public boolean areGranted(List<String> permissions) {
+    for (int i = 0; i < permissions.size(); i++) {
+      if (!grantedPermissions.contains(permissions.get(i))) {
+        return false;
+      }
+    }
+    hitCount.addAndGet(permissions.size());
+    return true;
+  }
+
+  /**
+   * Resolves the state of each permission into the given array, querying the Android permission
+   * system at once for all the permissions not known to be granted. No allocation is done when
+   * every permission is known to be granted.
+   *
+   * @see AndroidPermissionService#checkSelfPermissions
+   */
+  void checkSelfPermissions(@NonNull Context context, @NonNull String[] permissions,
+      @NonNull int[] permissionStates) {
+    int missingPermissionsCount = 0;
+    for (int i = 0; i < permissions.length; i++) {
+      if (grantedPermissions.contains(permissions[i])) {
+        hitCount.incrementAndGet();
+        permissionStates[i] = PermissionChecker.PERMISSION_GRANTED;
+      } else {
+        missCount.incrementAndGet();
+        permissionStates[i] = PermissionChecker.PERMISSION_DENIED;
+        missingPermissionsCount++;
+      }
+    }
+
+    if (missingPermissionsCount == 0) {
+      return;
+    }
+
+    String[] missingPermissions = new String[missingPermissionsCount];
+    for (int i = 0, j = 0; i < permissions.length; i++) {
+      if (permissionStates[i] != PermissionChecker.PERMISSION_GRANTED) {
+        missingPermissions[j++] = permissions[i];
+      }
+    }
+
+    queryCount.incrementAndGet();
+    int[] missingPermissionStates =
+        androidPermissionService.checkSelfPermissions(context, missingPermissions);
+    for (int i = 0, j = 0; i < permissions.length; i++) {
+      if (permissionStates[i] != PermissionChecker.PERMISSION_GRANTED) {
+        int permissionState = missingPermissionStates[j++];
+        permissionStates[i] = permissionState;
+        if (permissionState == PermissionChecker.PERMISSION_GRANTED) {
+          grantedPermissions.add(permissions[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Updates the cache with the permissions the user has just granted
+   */
+  void onPermissionsGranted(Collection<String> permissions) {
+    grantedPermissions.addAll(permissions);
+  }
+
+  /**
+   * Updates the cache with the permissions the user has just denied
+   */
+  void onPermissionsDenied(Collection<String> permissions) {
+    grantedPermissions.removeAll(permissions);
+  }
+
+  /**
+   * Forgets every cached state so they are queried again the next time they are checked
+   */
+  void invalidate() {
+    grantedPermissions.clear();
+  }
+
+  /**
+   * Returns how many permission checks have been answered without querying the Android
+   * permission system
+   */
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns how many permission checks have required a query to the Android permission system
+   */
+  long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns how many queries have been sent to the Android permission system
+   */
+  long getQueryCount() {
+    return queryCount.get();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import androidx.core.content.PermissionChecker;
+
+/**
+ * Current state of a permission as reported by the Android permission system
+ */
+public enum PermissionStatus {
+  /**
+   * The permission has been granted
+   */
+  GRANTED,
+
+  /**
+   * The permission has not been granted
+   */
+  DENIED,
+
+  /**
+   * The permission has been granted but the app op associated to it has been denied
+   */
+  DENIED_APP_OP;
+
+  static PermissionStatus from(int permissionState) {
+    switch (permissionState) {
+      case PermissionChecker.PERMISSION_GRANTED:
+        return GRANTED;
+      case PermissionChecker.PERMISSION_DENIED_APP_OP:
+        return DENIED_APP_OP;
+      case PermissionChecker.PERMISSION_DENIED:
+      default:
+        return DENIED;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import com.karumi.dexter.listener.PermissionStatusChange;
+import com.karumi.dexter.listener.PermissionStatusObserver;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a snapshot of the status of the watched permissions and notifies their observers with the
+ * permissions whose status changed since then every time the application returns to the
+ * foreground. Every foreground transition costs a single batched query for all the watched
+ * permissions, whatever the number of observers.
+ */
+final class PermissionWatcher {
+
+  private final PermissionStateCache permissionStateCache;
+  private final Map<PermissionStatusObserver, Set<String>> observers = new LinkedHashMap<>();
+  private final Map<String, PermissionStatus> snapshot = new LinkedHashMap<>();
+  private Context context;
+
+  PermissionWatcher(PermissionStateCache permissionStateCache) {
+    this.permissionStateCache = permissionStateCache;
+  }
+
+  /**
+   * Starts watching the given permissions for the observer, taking their current status as the
+   * reference for the next foreground transition if they were not watched yet
+   */
+  synchronized void watch(Context context, Collection<String> permissions,
+      PermissionStatusObserver observer) {
+    this.context = context.getApplicationContext();
+
+    Set<String> observedPermissions = observers.get(observer);
+    if (observedPermissions == null) {
+      observedPermissions = new LinkedHashSet<>();
+      observers.put(observer, observedPermissions);
+    }
+    observedPermissions.addAll(permissions);
+
+    Set<String> newPermissions = new LinkedHashSet<>(permissions);
+    newPermissions.removeAll(snapshot.keySet());
+    if (!newPermissions.isEmpty()) {
+      String[] permissionsToResolve = newPermissions.toArray(new String[0]);
+      int[] permissionStates = new int[permissionsToResolve.length];
+      permissionStateCache.checkSelfPermissions(this.context, permissionsToResolve,
+          permissionStates);
+      for (int i = 0; i < permissionsToResolve.length; i++) {
+        snapshot.put(permissionsToResolve[i], PermissionStatus.from(permissionStates[i]));
+      }
+    }
+  }
+
+  /**
+   * Stops notifying the observer, forgetting the permissions no other observer is watching
+   */
+  synchronized void unwatch(PermissionStatusObserver observer) {
+    if (observers.remove(observer) == null) {
+      return;
+    }
+
+    Set<String> watchedPermissions = new LinkedHashSet<>();
+    for (Set<String> observedPermissions : observers.values()) {
+      watchedPermissions.addAll(observedPermissions);
+    }
+    snapshot.keySet().retainAll(watchedPermissions);
+  }
+
+  /**
+   * Resolves again the status of the watched permissions and notifies the observers of the ones
+   * that changed. Must be called once the cached permission states have been invalidated
+   */
+  void onForeground() {
+    Map<PermissionStatusObserver, List<PermissionStatusChange>> notifications;
+    synchronized (this) {
+      if (snapshot.isEmpty()) {
+        return;
+      }
+
+      String[] permissions = snapshot.keySet().toArray(new String[0]);
+      int[] permissionStates = new int[permissions.length];
+      permissionStateCache.checkSelfPermissions(context, permissions, permissionStates);
+
+      Map<String, PermissionStatusChange> changes = new HashMap<>();
+      for (int i = 0; i < permissions.length; i++) {
+        PermissionStatus currentStatus = PermissionStatus.from(permissionStates[i]);
+        PermissionStatus previousStatus = snapshot.put(permissions[i], currentStatus);
+        if (previousStatus != currentStatus) {
+          changes.put(permissions[i],
+              new PermissionStatusChange(permissions[i], previousStatus, currentStatus));
+        }
+      }
+
+      if (changes.isEmpty()) {
+        return;
+      }
+
+      notifications = new LinkedHashMap<>();
+      for (Map.Entry<PermissionStatusObserver, Set<String>> entry : observers.entrySet()) {
+        List<PermissionStatusChange> observerChanges = new ArrayList<>();
+        for (String permission : entry.getValue()) {
+          PermissionStatusChange change = changes.get(permission);
+          if (change != null) {
+            observerChanges.add(change);
+          }
+        }
+        if (!observerChanges.isEmpty()) {
+          notifications.put(entry.getKey(), observerChanges);
+        }
+      }
+    }
+
+    for (Map.Entry<PermissionStatusObserver, List<PermissionStatusChange>> notification
+        : notifications.entrySet()) {
+      notification.getKey().onPermissionStatusesChanged(notification.getValue());
+    }
+  }
+}
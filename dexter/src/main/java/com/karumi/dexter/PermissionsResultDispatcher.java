@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import androidx.core.content.PermissionChecker;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+
+/**
+ * Translates the results of a system permission request into the granted and denied permissions
+ * notified to Dexter
+ */
+final class PermissionsResultDispatcher {
+
+  private PermissionsResultDispatcher() {
+  }
+
+  /**
+   * @see androidx.core.app.ActivityCompat.OnRequestPermissionsResultCallback
+   */
+  static void dispatch(Context context, String[] permissions, int[] grantResults) {
+    Collection<String> grantedPermissions = new LinkedList<>();
+    Collection<String> deniedPermissions = new LinkedList<>();
+
+    if (isTargetSdkUnderAndroidM(context)) {
+      deniedPermissions.addAll(Arrays.asList(permissions));
+    } else {
+      for (int i = 0; i < permissions.length; i++) {
+        String permission = permissions[i];
+        switch (grantResults[i]) {
+          case PermissionChecker.PERMISSION_DENIED:
+          case PermissionChecker.PERMISSION_DENIED_APP_OP:
+            deniedPermissions.add(permission);
+            break;
+          case PermissionChecker.PERMISSION_GRANTED:
+            grantedPermissions.add(permission);
+            break;
+          default:
+        }
+      }
+    }
+
+    Dexter.onPermissionsRequested(grantedPermissions, deniedPermissions);
+  }
+
+  private static boolean isTargetSdkUnderAndroidM(Context context) {
+    try {
+      final PackageInfo info =
+          context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+      int targetSdkVersion = info.applicationInfo.targetSdkVersion;
+      return targetSdkVersion < Build.VERSION_CODES.M;
+    } catch (PackageManager.NameNotFoundException ignored) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+
+/**
+ * Backend adding a headless {@link DexterFragment} to the {@link FragmentActivity} Dexter has been
+ * called with
+ */
+final class RetainedFragmentPermissionRequester implements PermissionRequester {
+
+  @Override public boolean canStartFrom(Context context) {
+    if (!(context instanceof FragmentActivity)) {
+      return false;
+    }
+
+    FragmentActivity activity = (FragmentActivity) context;
+    FragmentManager fragmentManager = activity.getSupportFragmentManager();
+    return !activity.isFinishing() && !fragmentManager.isStateSaved();
+  }
+
+  @Override public void start(Context context) {
+    final FragmentActivity activity = (FragmentActivity) context;
+    ThreadFactory.makeMainThread().execute(new Runnable() {
+      @Override public void run() {
+        FragmentManager fragmentManager = activity.getSupportFragmentManager();
+        Fragment fragment = fragmentManager.findFragmentByTag(DexterFragment.TAG);
+        if (fragment instanceof DexterFragment && fragment.isAdded() && !fragment.isRemoving()) {
+          Dexter.onFragmentReady((DexterFragment) fragment);
+        } else {
+          fragmentManager.beginTransaction()
+              .add(new DexterFragment(), DexterFragment.TAG)
+              .commitAllowingStateLoss();
+        }
+      }
+    });
+  }
+}
@@ -17,31 +17,55 @@
 package com.karumi.dexter;
 
 import android.os.Looper;
+import java.util.concurrent.Executor;
 
 /**
  * Factory to create the different thread implementations
  */
 final class ThreadFactory {
 
+  private static final Thread MAIN_THREAD = new MainThread();
+
   /**
    * Create a thread to execute on the main thread
    */
   public static Thread makeMainThread() {
-    return new MainThread();
+    return MAIN_THREAD;
+  }
+
+  /**
+   * Create a thread to execute on the given executor
+   */
+  public static Thread makeExecutorThread(Executor executor) {
+    return new ExecutorThread(executor);
   }
 
   /**
-   * Create a thread to execute on the same thread that this method is executed on
+   * Create a thread to execute on the same thread that this method is executed on. Threads without
+   * a Looper can not receive messages, so their callbacks are executed on a shared background
+   * thread instead and the calling thread is never blocked
    */
   public static Thread makeSameThread() {
     if (runningMainThread()) {
-      return new MainThread();
+      return MAIN_THREAD;
+    }
+
+    return makeSameThread(Looper.myLooper());
+  }
+
+  /**
+   * Create a thread to execute on the given looper, or on a shared background thread if the
+   * calling thread has no looper
+   */
+  static Thread makeSameThread(Looper looper) {
+    if (looper != null) {
+      return new WorkerThread(looper);
     } else {
-      return new WorkerThread();
+      return makeExecutorThread(CallbackExecutor.get());
     }
   }
 
-  private static boolean runningMainThread() {
+  static boolean runningMainThread() {
     return Looper.getMainLooper().getThread() == java.lang.Thread.currentThread();
   }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Backend starting the internal {@link DexterActivity}, which can be used from any context
+ */
+final class TransparentActivityPermissionRequester implements PermissionRequester {
+
+  private final IntentProvider intentProvider;
+
+  TransparentActivityPermissionRequester(IntentProvider intentProvider) {
+    this.intentProvider = intentProvider;
+  }
+
+  @Override public boolean canStartFrom(Context context) {
+    return true;
+  }
+
+  @Override public void start(Context context) {
+    Intent intent = intentProvider.get(context, DexterActivity.class);
+    if (!(context instanceof Activity)) {
+      intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+    }
+    context.startActivity(intent);
+  }
+}
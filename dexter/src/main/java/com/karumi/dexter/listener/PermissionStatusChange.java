@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.listener;
+
+import androidx.annotation.NonNull;
+import com.karumi.dexter.PermissionStatus;
+
+/**
+ * Change of the status of a watched permission detected when the application returned to the
+ * foreground
+ */
+public final class PermissionStatusChange {
+
+  private final String permissionName;
+  private final PermissionStatus previousStatus;
+  private final PermissionStatus currentStatus;
+
+  public PermissionStatusChange(@NonNull String permissionName,
+      @NonNull PermissionStatus previousStatus, @NonNull PermissionStatus currentStatus) {
+    this.permissionName = permissionName;
+    this.previousStatus = previousStatus;
+    this.currentStatus = currentStatus;
+  }
+
+  public String getPermissionName() {
+    return permissionName;
+  }
+
+  public PermissionStatus getPreviousStatus() {
+    return previousStatus;
+  }
+
+  public PermissionStatus getCurrentStatus() {
+    return currentStatus;
+  }
+
+  /**
+   * Returns whether the permission was granted and it is not anymore
+   */
+  public boolean isRevoked() {
+    return previousStatus == PermissionStatus.GRANTED && currentStatus != PermissionStatus.GRANTED;
+  }
+}
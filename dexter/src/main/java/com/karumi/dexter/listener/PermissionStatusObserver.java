@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter.listener;
+
+import java.util.List;
+
+/**
+ * Interface implemented by the observers of the status of watched permissions
+ */
+public interface PermissionStatusObserver {
+
+  /**
+   * Method called on the main thread when the application returns to the foreground and the
+   * status of some of the permissions watched by this observer has changed
+   *
+   * @param changes The changed permissions only, never empty
+   */
+  void onPermissionStatusesChanged(List<PermissionStatusChange> changes);
+}
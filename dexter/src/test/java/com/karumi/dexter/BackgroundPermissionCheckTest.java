@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import androidx.core.content.PermissionChecker;
+import com.karumi.dexter.listener.multi.BaseMultiplePermissionsListener;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class) public class BackgroundPermissionCheckTest {
+
+  private static final String ANY_PERMISSION = "noissimrep yna";
+  private static final int ANY_NUMBER_OF_CHECKS = 2000;
+  private static final int ANY_NUMBER_OF_CALLING_THREADS = 8;
+
+  @Mock AndroidPermissionService androidPermissionService;
+  @Mock Context context;
+  @Mock HostReleaseScheduler hostReleaseScheduler;
+
+  private DexterInstance dexter;
+  private ExecutorService callingThreads;
+
+  @Before public void setUp() {
+    when(androidPermissionService.checkSelfPermissions(any(Context.class), any(String[].class)))
+        .thenReturn(new int[] { PermissionChecker.PERMISSION_GRANTED });
+    dexter = new DexterInstance(context, androidPermissionService, new IntentProvider(),
+        hostReleaseScheduler, new TestThread());
+    callingThreads = Executors.newFixedThreadPool(ANY_NUMBER_OF_CALLING_THREADS);
+  }
+
+  @After public void tearDown() {
+    callingThreads.shutdownNow();
+  }
+
+  /*
+   * Plain JVM threads have no Looper, which is what ThreadFactory.makeSameThread() resolves to
+   * when called from them. The Android stubs can not be queried from unit tests, so the Looper
+   * lookup is skipped and the thread is resolved from the missing Looper directly.
+   */
+  @Test public void onThousandsOfBackgroundChecksThenEveryCallbackIsDelivered()
+      throws InterruptedException {
+    final CountDownLatch deliveredCallbacks = new CountDownLatch(ANY_NUMBER_OF_CHECKS);
+    final BaseMultiplePermissionsListener listener = new BaseMultiplePermissionsListener() {
+      @Override public void onPermissionsChecked(MultiplePermissionsReport report) {
+        if (report.areAllPermissionsGranted()) {
+          deliveredCallbacks.countDown();
+        }
+      }
+    };
+
+    for (int i = 0; i < ANY_NUMBER_OF_CHECKS; i++) {
+      callingThreads.execute(new Runnable() {
+        @Override public void run() {
+          dexter.checkPermissions(listener, Collections.singletonList(ANY_PERMISSION),
+              ThreadFactory.makeSameThread(null));
+        }
+      });
+    }
+
+    assertTrue(deliveredCallbacks.await(10, TimeUnit.SECONDS));
+  }
+}
@@ -17,31 +17,59 @@
 package com.karumi.dexter;
 
 import android.app.Activity;
+import android.app.Application;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import androidx.core.content.PermissionChecker;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
 
 import com.karumi.dexter.RetryCheckPermissionOnDeniedPermissionListener.CheckPermissionAction;
+import com.karumi.dexter.listener.DexterError;
 import com.karumi.dexter.listener.PermissionDeniedResponse;
 import com.karumi.dexter.listener.PermissionGrantedResponse;
 import com.karumi.dexter.listener.PermissionRequest;
+import com.karumi.dexter.listener.PermissionRequestErrorListener;
+import com.karumi.dexter.listener.event.DexterEventListener;
 import com.karumi.dexter.listener.multi.MultiplePermissionsListener;
+import com.karumi.dexter.listener.multi.StreamingMultiplePermissionsListener;
+import com.karumi.dexter.listener.pipeline.PermissionPipelineListener;
 import com.karumi.dexter.listener.single.PermissionListener;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -49,14 +77,27 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class) public class DexterInstanceTest {
 
   private static final String ANY_PERMISSION = "noissimrep yna";
+  private static final String OTHER_PERMISSION = "noissimrep rehto";
+  private static final String THIRD_PERMISSION = "noissimrep driht";
   private static final Thread THREAD = new TestThread();
 
   @Mock AndroidPermissionService androidPermissionService;
   @Mock Context context;
   @Mock Intent intent;
   @Mock Activity activity;
+  @Mock Activity otherActivity;
+  @Mock Activity thirdActivity;
+  @Mock Application application;
   @Mock MultiplePermissionsListener multiplePermissionsListener;
   @Mock PermissionListener permissionListener;
+  @Mock PermissionListener otherPermissionListener;
+  @Mock PermissionRequestErrorListener errorListener;
+  @Mock HostReleaseScheduler hostReleaseScheduler;
+  @Mock PermissionPipelineListener pipelineListener;
+  @Mock StreamingMultiplePermissionsListener streamingListener;
+  @Mock LifecycleOwner lifecycleOwner;
+  @Mock Lifecycle lifecycle;
+  @Mock DexterEventListener eventListener;
 
   private DexterInstance dexter;
   private AsyncExecutor asyncExecutor;
@@ -64,7 +105,9 @@ import static org.mockito.Mockito.when;
   @Before public void setUp() {
     IntentProvider intentProvider = new IntentMockProvider(intent);
     asyncExecutor = new AsyncExecutor();
-    dexter = new DexterInstance(context, androidPermissionService, intentProvider);
+    dexter = new DexterInstance(context, androidPermissionService, intentProvider,
+        hostReleaseScheduler, THREAD);
+    givenPermissionsAreCheckedOneByOne();
   }
 
   @Test(expected = DexterException.class) public void onNoPermissionCheckedThenThrowException() {
@@ -73,6 +116,7 @@ import static org.mockito.Mockito.when;
 
   @Test(expected = DexterException.class)
   public void onCheckPermissionMoreThanOnceThenThrowException() {
+    givenRequestQueueCapacity(0, QueueOverflowPolicy.REJECT_NEW_REQUEST);
     givenPermissionIsAlreadyDenied(ANY_PERMISSION);
     dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
     dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
@@ -141,6 +185,7 @@ import static org.mockito.Mockito.when;
   }
 
   @Test(expected = DexterException.class) public void onCheckPermissionTwiceThenThrowException() {
+    givenRequestQueueCapacity(0, QueueOverflowPolicy.REJECT_NEW_REQUEST);
     givenPermissionIsAlreadyDenied(ANY_PERMISSION);
 
     whenCheckPermission(permissionListener, ANY_PERMISSION);
@@ -159,6 +204,453 @@ import static org.mockito.Mockito.when;
     verifyRequestPermissions(new String[]{ANY_PERMISSION}, 2);
   }
 
+  @Test public void onCheckPermissionWhileAnotherIsOngoingThenRequestIsQueued() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+
+    verify(otherPermissionListener, never()).onPermissionGranted(
+        any(PermissionGrantedResponse.class));
+  }
+
+  @Test public void onOngoingRequestFinishedThenQueuedRequestIsProcessed() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    thenPermissionIsDenied(ANY_PERMISSION);
+    verify(otherPermissionListener).onPermissionGranted(
+        argThat(getPermissionGrantedResponseMatcher(OTHER_PERMISSION)));
+  }
+
+  @Test public void onQueuedRequestsThenTheyReuseTheOngoingActivity() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyDenied(OTHER_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(context, times(1)).startActivity(intent);
+    verifyRequestPermissions(new String[]{OTHER_PERMISSION}, 1);
+    verify(activity, never()).finish();
+  }
+
+  @Test public void onRequestCheckedWithinLingerTimeThenItReusesTheActivity() {
+    givenHostLingerTime(1000);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyDenied(OTHER_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+
+    verify(context, times(1)).startActivity(intent);
+    verifyRequestPermissions(new String[]{OTHER_PERMISSION}, 1);
+    verify(activity, never()).finish();
+  }
+
+  @Test public void onLingerTimeElapsedThenActivityIsFinished() {
+    givenHostLingerTime(1000);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+    whenHostReleaseIsExecuted();
+
+    verify(activity).finish();
+  }
+
+  @Test(expected = DexterException.class) public void onQueueFullThenNewRequestIsRejected() {
+    givenRequestQueueCapacity(1, QueueOverflowPolicy.REJECT_NEW_REQUEST);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+    dexter.checkPermission(otherPermissionListener, THIRD_PERMISSION, THREAD);
+  }
+
+  @Test public void onQueueFullThenOldestQueuedRequestIsDiscarded() {
+    givenRequestQueueCapacity(1, QueueOverflowPolicy.DISCARD_OLDEST_REQUEST);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermissions(multiplePermissionsListener,
+        Collections.singletonList(OTHER_PERMISSION), THREAD, errorListener);
+    dexter.checkPermission(otherPermissionListener, THIRD_PERMISSION, THREAD);
+
+    verify(errorListener).onError(DexterError.REQUEST_ONGOING);
+  }
+
+  @Test public void onBackendNotSupportedByContextThenTransparentActivityIsStarted() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    dexter.checkPermissions(multiplePermissionsListener, Collections.singletonList(ANY_PERMISSION),
+        THREAD, errorListener, RequestBackend.RETAINED_FRAGMENT);
+
+    verify(context).startActivity(intent);
+  }
+
+  @Test public void onSamePermissionCheckedWhileOngoingThenRequestIsCoalesced() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, ANY_PERMISSION, THREAD);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    thenPermissionIsDenied(ANY_PERMISSION);
+    verify(otherPermissionListener).onPermissionDenied(
+        argThat(getPermissionDeniedResponseMatcher(ANY_PERMISSION, false)));
+    verifyRequestPermissions(new String[]{ANY_PERMISSION}, 1);
+  }
+
+  @Test public void onRequestCancelledWithOthersCoalescedIntoItThenOnlyTheOthersAreNotified() {
+    givenLifecycleState(Lifecycle.State.RESUMED);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermissionBoundToLifecycle(ANY_PERMISSION);
+    dexter.onActivityReady(activity);
+    dexter.checkPermission(otherPermissionListener, ANY_PERMISSION, THREAD);
+    whenLifecycleEventIsDispatched(Lifecycle.Event.ON_DESTROY);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(multiplePermissionsListener, never()).onPermissionsChecked(
+        any(MultiplePermissionsReport.class));
+    verify(otherPermissionListener).onPermissionDenied(
+        argThat(getPermissionDeniedResponseMatcher(ANY_PERMISSION, false)));
+  }
+
+  @Test public void onOverlappingRequestsQueuedThenEachListenerReceivesItsOwnPermissions() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+    givenPermissionIsAlreadyDenied(THIRD_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+    dexter.checkPermissions(multiplePermissionsListener,
+        Arrays.asList(OTHER_PERMISSION, THIRD_PERMISSION), THREAD);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+    dexter.onPermissionRequestDenied(Collections.singletonList(THIRD_PERMISSION));
+
+    verifyRequestPermissions(new String[]{THIRD_PERMISSION}, 1);
+    verify(otherPermissionListener).onPermissionGranted(
+        argThat(getPermissionGrantedResponseMatcher(OTHER_PERMISSION)));
+    verify(multiplePermissionsListener).onPermissionsChecked(argThat(getReportMatcher(1, 1)));
+  }
+
+  @Test public void onOverlappingRequestsQueuedThenEachListenerIsShownItsOwnRationale() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyDenied(OTHER_PERMISSION);
+    givenPermissionIsAlreadyDenied(THIRD_PERMISSION);
+    givenShouldShowRationaleForPermission(OTHER_PERMISSION);
+    givenShouldShowRationaleForPermission(THIRD_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.checkPermission(otherPermissionListener, THIRD_PERMISSION, THREAD);
+    dexter.checkPermissions(multiplePermissionsListener,
+        Arrays.asList(OTHER_PERMISSION, THIRD_PERMISSION), THREAD);
+    dexter.onActivityReady(activity);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(otherPermissionListener).onPermissionRationaleShouldBeShown(
+        argThat(getPermissionRequestShouldShowTokenMatcher(THIRD_PERMISSION)),
+        isA(PermissionToken.class));
+    verify(multiplePermissionsListener).onPermissionRationaleShouldBeShown(
+        argThat(getPermissionRequestsMatcher(OTHER_PERMISSION, THIRD_PERMISSION)),
+        isA(PermissionToken.class));
+  }
+
+  @Test public void onPipelineStageGrantedThenNextStageIsCheckedInTheSameSession() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+    PermissionPipeline pipeline = PermissionPipeline.Builder.withPermissions(ANY_PERMISSION)
+        .thenRequestIfAllGranted(OTHER_PERMISSION)
+        .build();
+
+    whenCheckPipeline(pipeline);
+    dexter.onPermissionRequestGranted(Collections.singletonList(ANY_PERMISSION));
+
+    verify(pipelineListener).onStageChecked(eq(0), argThat(getReportMatcher(1, 0)));
+    verify(pipelineListener).onStageChecked(eq(1), argThat(getReportMatcher(1, 0)));
+    verify(pipelineListener).onPipelineChecked(argThat(getReportMatcher(2, 0)));
+    verify(activity).finish();
+  }
+
+  @Test public void onPipelineStageConditionNotMetThenStageIsSkipped() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    PermissionPipeline pipeline = PermissionPipeline.Builder.withPermissions(ANY_PERMISSION)
+        .thenRequestIfAllGranted(OTHER_PERMISSION)
+        .build();
+
+    whenCheckPipeline(pipeline);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(pipelineListener, never()).onStageChecked(eq(1), any(MultiplePermissionsReport.class));
+    verify(pipelineListener).onPipelineChecked(argThat(getReportMatcher(0, 1)));
+  }
+
+  @Test public void onPipelineCancelledThenItsListenerIsNotNotified() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    PermissionPipeline pipeline = PermissionPipeline.Builder.withPermissions(ANY_PERMISSION)
+        .thenRequest(OTHER_PERMISSION)
+        .build();
+
+    PermissionPipelineSession session = dexter.checkPipeline(pipeline, pipelineListener, THREAD,
+        errorListener, RequestBackend.AUTOMATIC);
+    dexter.onActivityReady(activity);
+    dexter.cancelPipeline(session);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(activity).finish();
+    verify(pipelineListener, never()).onPipelineChecked(any(MultiplePermissionsReport.class));
+  }
+
+  @Test public void onStreamingListenerThenGrantedPermissionIsNotifiedBeforeTheDialogFinishes() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+
+    dexter.checkPermissions(streamingListener, Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION),
+        THREAD);
+    dexter.onActivityReady(activity);
+
+    verify(streamingListener).onPermissionGranted(
+        argThat(getPermissionGrantedResponseMatcher(OTHER_PERMISSION)));
+    verify(streamingListener, never()).onPermissionsChecked(any(MultiplePermissionsReport.class));
+  }
+
+  @Test public void onStreamingListenerThenCompletionIsNotifiedAfterEveryPermission() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+
+    dexter.checkPermissions(streamingListener, Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION),
+        THREAD);
+    dexter.onActivityReady(activity);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(streamingListener).onPermissionDenied(
+        argThat(getPermissionDeniedResponseMatcher(ANY_PERMISSION, false)));
+    verify(streamingListener).onPermissionsChecked(argThat(getReportMatcher(1, 1)));
+  }
+
+  @Test public void onLifecycleOwnerNotStartedThenReportIsDeliveredOnceItStarts() {
+    givenLifecycleState(Lifecycle.State.CREATED);
+    givenPermissionIsAlreadyGranted(ANY_PERMISSION);
+
+    whenCheckPermissionBoundToLifecycle(ANY_PERMISSION);
+    verify(multiplePermissionsListener, never()).onPermissionsChecked(
+        any(MultiplePermissionsReport.class));
+    whenLifecycleEventIsDispatched(Lifecycle.Event.ON_START);
+
+    verify(multiplePermissionsListener).onPermissionsChecked(argThat(getReportMatcher(1, 0)));
+  }
+
+  @Test public void onLifecycleOwnerDestroyedThenRequestIsCancelled() {
+    givenLifecycleState(Lifecycle.State.RESUMED);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermissionBoundToLifecycle(ANY_PERMISSION);
+    dexter.onActivityReady(activity);
+    whenLifecycleEventIsDispatched(Lifecycle.Event.ON_DESTROY);
+    dexter.onPermissionRequestDenied(Collections.singletonList(ANY_PERMISSION));
+
+    verify(activity).finish();
+    verify(multiplePermissionsListener, never()).onPermissionsChecked(
+        any(MultiplePermissionsReport.class));
+  }
+
+  @Test public void onRequestCancelledWhileTheDialogIsShownThenQueuedRequestWaitsForItsResult() {
+    givenLifecycleState(Lifecycle.State.RESUMED);
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyDenied(OTHER_PERMISSION);
+
+    whenCheckPermissionBoundToLifecycle(ANY_PERMISSION);
+    dexter.onActivityReady(activity);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+    whenLifecycleEventIsDispatched(Lifecycle.Event.ON_DESTROY);
+    verifyRequestPermissions(new String[]{OTHER_PERMISSION}, 0);
+    dexter.onPermissionsRequested(Collections.<String>emptyList(),
+        Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION));
+
+    verifyRequestPermissions(new String[]{OTHER_PERMISSION}, 1);
+    verify(otherPermissionListener, never()).onPermissionDenied(
+        any(PermissionDeniedResponse.class));
+  }
+
+  @Test public void onGrantedPermissionCheckedTwiceThenPermissionSystemIsQueriedOnce() {
+    givenPermissionIsAlreadyGranted(ANY_PERMISSION);
+
+    dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
+    dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
+
+    verify(permissionListener, times(2)).onPermissionGranted(
+        argThat(getPermissionGrantedResponseMatcher(ANY_PERMISSION)));
+    verifyCheckSelfPermission(ANY_PERMISSION, 1);
+    assertEquals(1, dexter.getPermissionStateCache().getHitCount());
+    assertEquals(1, dexter.getPermissionStateCache().getMissCount());
+  }
+
+  @Test public void onSwitchingActivitiesStartedBeforeDexterThenGrantedStatesStayCached() {
+    givenPermissionIsAlreadyGranted(ANY_PERMISSION);
+    Application.ActivityLifecycleCallbacks lifecycleCallbacks = givenForegroundTrackerRegistered();
+
+    dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
+    lifecycleCallbacks.onActivityStarted(otherActivity);
+    lifecycleCallbacks.onActivityStopped(activity);
+    lifecycleCallbacks.onActivityStarted(thirdActivity);
+    lifecycleCallbacks.onActivityStopped(otherActivity);
+    dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
+
+    verifyCheckSelfPermission(ANY_PERMISSION, 1);
+    assertEquals(1, dexter.getPermissionStateCache().getHitCount());
+  }
+
+  @Test public void onPermissionGrantedByUserThenPermissionSystemIsNotQueriedAgain() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.onPermissionRequestGranted(Collections.singletonList(ANY_PERMISSION));
+    dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
+
+    verify(permissionListener, times(2)).onPermissionGranted(
+        argThat(getPermissionGrantedResponseMatcher(ANY_PERMISSION)));
+    verifyCheckSelfPermission(ANY_PERMISSION, 2);
+  }
+
+  @Test public void onSeveralPermissionsCheckedThenTheirStatesAreResolvedInASingleQuery() {
+    givenPermissionIsAlreadyGranted(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+
+    dexter.checkPermissions(multiplePermissionsListener,
+        Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION), THREAD);
+
+    verify(androidPermissionService).checkSelfPermissions(any(Context.class),
+        any(String[].class));
+    verify(multiplePermissionsListener).onPermissionsChecked(argThat(getReportMatcher(2, 0)));
+  }
+
+  @Test public void onGrantedPermissionsCheckedAgainThenListenerIsNotifiedWithoutARequest() {
+    givenPermissionIsAlreadyGranted(ANY_PERMISSION);
+    givenPermissionIsAlreadyGranted(OTHER_PERMISSION);
+
+    dexter.checkPermissions(multiplePermissionsListener,
+        Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION), THREAD);
+    DexterRequest request = dexter.checkPermissions(multiplePermissionsListener,
+        Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION), THREAD, errorListener,
+        RequestBackend.AUTOMATIC, null);
+
+    assertNull(request);
+    verify(androidPermissionService).checkSelfPermissions(any(Context.class),
+        any(String[].class));
+    verify(multiplePermissionsListener, times(2)).onPermissionsChecked(
+        argThat(getReportMatcher(2, 0)));
+  }
+
+  @Test public void onEventListenerThenEveryPhaseOfTheRequestIsNotifiedInOrder() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenShouldNotShowRationaleForPermission(ANY_PERMISSION);
+    dexter.setEventListener(eventListener);
+
+    whenCheckPermission(permissionListener, ANY_PERMISSION);
+    dexter.onPermissionsRequested(Collections.<String>emptyList(),
+        Collections.singletonList(ANY_PERMISSION));
+
+    InOrder inOrder = inOrder(eventListener);
+    inOrder.verify(eventListener).onRequestChecked(anyLong(),
+        eq(Collections.singletonList(ANY_PERMISSION)), anyLong());
+    inOrder.verify(eventListener).onRequestStarted(anyLong(), anyLong());
+    inOrder.verify(eventListener).onPermissionStatesChecked(anyLong(), eq(false), anyLong());
+    inOrder.verify(eventListener).onHostLaunched(anyLong(), anyLong());
+    inOrder.verify(eventListener).onHostReady(anyLong(), anyLong());
+    inOrder.verify(eventListener).onSystemDialogShown(anyLong(), anyLong());
+    inOrder.verify(eventListener).onSystemDialogDismissed(anyLong(), anyLong());
+    inOrder.verify(eventListener).onReportDispatched(anyLong(), anyLong());
+    inOrder.verify(eventListener).onReportDelivered(anyLong(), anyLong());
+    thenPermissionIsDenied(ANY_PERMISSION);
+  }
+
+  @Test public void onRequestQueuedThenDumpIncludesTheQueueAndItsTransitions() {
+    givenPermissionIsAlreadyDenied(ANY_PERMISSION);
+    givenPermissionIsAlreadyDenied(OTHER_PERMISSION);
+    dexter.checkPermission(permissionListener, ANY_PERMISSION, THREAD);
+    dexter.checkPermission(otherPermissionListener, OTHER_PERMISSION, THREAD);
+
+    StringWriter dump = new StringWriter();
+    dexter.dump(new PrintWriter(dump));
+
+    String state = dump.toString();
+    assertTrue(state.contains("isRequestingPermission=true"));
+    assertTrue(state.contains("pendingPermissions=[" + ANY_PERMISSION + "]"));
+    assertTrue(state.contains("queue=DexterRequestQueue{size=1"));
+    assertTrue(state.contains("request started #"));
+    assertTrue(state.contains("request queued #"));
+  }
+
+  @Test public void onPermissionStatusCheckedThenAppOpDenialIsReported() {
+    givenPermissionIsChecked(ANY_PERMISSION, PermissionChecker.PERMISSION_DENIED_APP_OP);
+
+    PermissionStatus status = dexter.checkPermissionStatus(context, ANY_PERMISSION);
+
+    assertEquals(PermissionStatus.DENIED_APP_OP, status);
+  }
+
+  @Test public void onPermissionStatusesCheckedThenNoActivityIsStarted() {
+    givenPermissionIsAlreadyGranted(ANY_PERMISSION);
+    givenPermissionIsAlreadyDenied(OTHER_PERMISSION);
+    PermissionStatus[] statuses = new PermissionStatus[2];
+
+    dexter.checkPermissionStatuses(context, new String[]{ANY_PERMISSION, OTHER_PERMISSION},
+        statuses);
+
+    assertEquals(PermissionStatus.GRANTED, statuses[0]);
+    assertEquals(PermissionStatus.DENIED, statuses[1]);
+    verify(context, never()).startActivity(any(Intent.class));
+  }
+
+  private void givenLifecycleState(Lifecycle.State state) {
+    when(lifecycleOwner.getLifecycle()).thenReturn(lifecycle);
+    when(lifecycle.getCurrentState()).thenReturn(state);
+  }
+
+  /*
+   * Registered once the activity has already been started, as done by Dexter.withContext
+   */
+  private Application.ActivityLifecycleCallbacks givenForegroundTrackerRegistered() {
+    when(context.getApplicationContext()).thenReturn(application);
+    dexter.setContext(context);
+    ArgumentCaptor<Application.ActivityLifecycleCallbacks> callbacksCaptor =
+        ArgumentCaptor.forClass(Application.ActivityLifecycleCallbacks.class);
+    verify(application).registerActivityLifecycleCallbacks(callbacksCaptor.capture());
+    return callbacksCaptor.getValue();
+  }
+
+  private void givenHostLingerTime(long lingerTimeMillis) {
+    dexter.setHostLingerTime(lingerTimeMillis);
+  }
+
+  private void givenRequestQueueCapacity(int capacity, QueueOverflowPolicy overflowPolicy) {
+    dexter.setRequestQueueCapacity(capacity, overflowPolicy);
+  }
+
+  private void givenPermissionsAreCheckedOneByOne() {
+    lenient().when(androidPermissionService.checkSelfPermissions(any(Context.class),
+        any(String[].class))).thenAnswer(new Answer<int[]>() {
+      @Override public int[] answer(InvocationOnMock invocation) {
+        Context context = invocation.getArgument(0);
+        String[] permissions = invocation.getArgument(1);
+        int[] permissionStates = new int[permissions.length];
+        for (int i = 0; i < permissions.length; i++) {
+          permissionStates[i] =
+              androidPermissionService.checkSelfPermission(context, permissions[i]);
+        }
+        return permissionStates;
+      }
+    });
+  }
+
   private void givenPermissionIsAlreadyDenied(String permission) {
     givenPermissionIsChecked(permission, PackageManager.PERMISSION_DENIED);
   }
@@ -202,7 +694,7 @@ import static org.mockito.Mockito.when;
   }
 
   private void givenARuntimeExceptionIsThrownWhenPermissionIsChecked(String permission) {
-    when(androidPermissionService.checkSelfPermission(activity, permission)).thenThrow(
+    when(androidPermissionService.checkSelfPermission(context, permission)).thenThrow(
         new RuntimeException());
   }
 
@@ -211,10 +703,38 @@ import static org.mockito.Mockito.when;
     dexter.onActivityReady(activity);
   }
 
+  private void whenCheckPermissionBoundToLifecycle(String permission) {
+    dexter.checkPermissions(multiplePermissionsListener, Collections.singletonList(permission),
+        THREAD, errorListener, RequestBackend.AUTOMATIC, lifecycleOwner);
+  }
+
+  private void whenLifecycleEventIsDispatched(Lifecycle.Event event) {
+    ArgumentCaptor<LifecycleObserver> observer = ArgumentCaptor.forClass(LifecycleObserver.class);
+    verify(lifecycle).addObserver(observer.capture());
+    ((LifecycleEventObserver) observer.getValue()).onStateChanged(lifecycleOwner, event);
+  }
+
+  private void whenCheckPipeline(PermissionPipeline pipeline) {
+    dexter.checkPipeline(pipeline, pipelineListener, THREAD, errorListener,
+        RequestBackend.AUTOMATIC);
+    dexter.onActivityReady(activity);
+  }
+
+  private void whenHostReleaseIsExecuted() {
+    ArgumentCaptor<Runnable> release = ArgumentCaptor.forClass(Runnable.class);
+    verify(hostReleaseScheduler).schedule(release.capture(), anyLong());
+    release.getValue().run();
+  }
+
   private void verifyRequestPermissions(String[] permissions, int nTimes) {
     verify(androidPermissionService, times(nTimes)).requestPermissions(eq(activity), eq(permissions), anyInt());
   }
 
+  private void verifyCheckSelfPermission(String permission, int nTimes) {
+    verify(androidPermissionService, times(nTimes)).checkSelfPermission(any(Context.class),
+        eq(permission));
+  }
+
   private void thenPermissionIsGranted(String permission) {
     verify(permissionListener).onPermissionGranted(
         argThat(getPermissionGrantedResponseMatcher(permission)));
@@ -260,6 +780,16 @@ import static org.mockito.Mockito.when;
     };
   }
 
+  private static ArgumentMatcher<MultiplePermissionsReport> getReportMatcher(
+      final int grantedPermissions, final int deniedPermissions) {
+    return new ArgumentMatcher<MultiplePermissionsReport>() {
+      @Override public boolean matches(MultiplePermissionsReport report) {
+        return report.getGrantedPermissionResponses().size() == grantedPermissions
+            && report.getDeniedPermissionResponses().size() == deniedPermissions;
+      }
+    };
+  }
+
   private static ArgumentMatcher<PermissionRequest> getPermissionRequestShouldShowTokenMatcher(
       final String permission) {
     return new ArgumentMatcher<PermissionRequest>() {
@@ -269,6 +799,19 @@ import static org.mockito.Mockito.when;
     };
   }
 
+  private static ArgumentMatcher<List<PermissionRequest>> getPermissionRequestsMatcher(
+      final String... permissions) {
+    return new ArgumentMatcher<List<PermissionRequest>>() {
+      @Override public boolean matches(List<PermissionRequest> requests) {
+        Set<String> requestedPermissions = new HashSet<>();
+        for (PermissionRequest request : requests) {
+          requestedPermissions.add(request.getName());
+        }
+        return requestedPermissions.equals(new HashSet<>(Arrays.asList(permissions)));
+      }
+    };
+  }
+
   private static class IntentMockProvider extends IntentProvider {
     private final Intent intent;
 
@@ -292,15 +835,4 @@ import static org.mockito.Mockito.when;
       });
     }
   }
-
-  private static class TestThread implements Thread {
-
-    @Override public void execute(Runnable runnable) {
-      runnable.run();
-    }
-
-    @Override public void loop() {
-
-    }
-  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2020 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.karumi.dexter;
+
+import android.content.Context;
+import androidx.core.content.PermissionChecker;
+import com.karumi.dexter.listener.PermissionStatusChange;
+import com.karumi.dexter.listener.PermissionStatusObserver;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class) public class PermissionWatcherTest {
+
+  private static final String ANY_PERMISSION = "noissimrep yna";
+  private static final String OTHER_PERMISSION = "noissimrep rehto";
+  private static final int GRANTED = PermissionChecker.PERMISSION_GRANTED;
+  private static final int DENIED = PermissionChecker.PERMISSION_DENIED;
+
+  @Mock AndroidPermissionService androidPermissionService;
+  @Mock Context context;
+
+  private PermissionStateCache permissionStateCache;
+  private PermissionWatcher permissionWatcher;
+  private RecordingObserver observer;
+
+  @Before public void setUp() {
+    when(context.getApplicationContext()).thenReturn(context);
+    permissionStateCache = new PermissionStateCache(androidPermissionService);
+    permissionWatcher = new PermissionWatcher(permissionStateCache);
+    observer = new RecordingObserver();
+  }
+
+  @Test public void onForegroundThenOnlyTheChangedPermissionsAreNotified() {
+    givenPermissionStates(new int[] { GRANTED, GRANTED }, new int[] { DENIED, GRANTED });
+    permissionWatcher.watch(context, Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION), observer);
+
+    whenApplicationReturnsToForeground();
+
+    assertEquals(1, observer.changes.size());
+    PermissionStatusChange change = observer.changes.get(0);
+    assertEquals(ANY_PERMISSION, change.getPermissionName());
+    assertTrue(change.isRevoked());
+    verify(androidPermissionService, times(2)).checkSelfPermissions(any(Context.class),
+        any(String[].class));
+  }
+
+  @Test public void onForegroundWithoutChangesThenObserverIsNotNotified() {
+    givenPermissionStates(new int[] { GRANTED, DENIED }, new int[] { GRANTED, DENIED });
+    permissionWatcher.watch(context, Arrays.asList(ANY_PERMISSION, OTHER_PERMISSION), observer);
+
+    whenApplicationReturnsToForeground();
+
+    assertTrue(observer.changes.isEmpty());
+  }
+
+  private void givenPermissionStates(int[] initialStates, int[] foregroundStates) {
+    when(androidPermissionService.checkSelfPermissions(any(Context.class), any(String[].class)))
+        .thenReturn(initialStates, foregroundStates);
+  }
+
+  private void whenApplicationReturnsToForeground() {
+    permissionStateCache.invalidate();
+    permissionWatcher.onForeground();
+  }
+
+  private static class RecordingObserver implements PermissionStatusObserver {
+
+    private final List<PermissionStatusChange> changes = new ArrayList<>();
+
+    @Override public void onPermissionStatusesChanged(List<PermissionStatusChange> changes) {
+      this.changes.addAll(changes);
+    }
+  }
+}